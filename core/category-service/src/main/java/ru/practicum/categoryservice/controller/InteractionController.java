@@ -2,8 +2,12 @@ package ru.practicum.categoryservice.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.categoryservice.service.CategoryService;
+import ru.practicum.interactionapi.bulk.InvalidPackedIdsException;
+import ru.practicum.interactionapi.bulk.PackedIds;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
 
@@ -34,6 +38,32 @@ public class InteractionController {
         return categoryService.getCategories(categoriesIds);
     }
 
+    /**
+     * Получить коллекцию категорий по упакованным идентификаторам.
+     *
+     * @param packedCategoryIds идентификаторы категорий, упакованные {@link PackedIds#pack(Collection)}.
+     * @return коллекция категорий в порядке возрастания идентификаторов.
+     * @throws InvalidPackedIdsException упакованные идентификаторы повреждены.
+     */
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Collection<CategoryDto> lookupCategories(@RequestBody byte[] packedCategoryIds) throws InvalidPackedIdsException {
+        Collection<Long> categoriesIds = PackedIds.unpack(packedCategoryIds);
+        log.info("Lookup {} categories", categoriesIds.size());
+        return categoryService.getCategories(categoriesIds);
+    }
+
+    /**
+     * Получить снимок справочника категорий.
+     *
+     * @param sinceVersion версия справочника, имеющаяся у вызывающей стороны.
+     * @return снимок справочника; категории не передаются, если версия совпадает с {@code sinceVersion}.
+     */
+    @GetMapping("/snapshot")
+    public CategoryCatalogDto getCategoryCatalog(@RequestParam(name = "sinceVersion", required = false) Long sinceVersion) {
+        log.info("Get category catalog since version {}", sinceVersion);
+        return categoryService.getCategoryCatalog(sinceVersion);
+    }
+
     /**
      * Получить категорию по её идентификатору.
      *
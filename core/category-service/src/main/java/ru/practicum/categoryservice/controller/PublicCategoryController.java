@@ -5,10 +5,13 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.categoryservice.service.CategoryService;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.util.Collection;
 
@@ -28,16 +31,18 @@ public class PublicCategoryController {
     /**
      * Получить коллекцию категорий.
      *
-     * @param from количество категорий, которое необходимо пропустить.
-     * @param size количество категорий, которое необходимо получить.
+     * @param from  количество категорий, которое необходимо пропустить.
+     * @param size  количество категорий, которое необходимо получить.
+     * @param after позиция, после которой нужно получить категории (из заголовка {@value SeekPage#NEXT_CURSOR_HEADER} предыдущего ответа).
      * @return коллекция категорий.
+     * @throws InvalidCursorException позиция {@code after} некорректная.
      */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public Collection<CategoryDto> getCategories(@RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-                                                 @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
-        log.info("Get {} categories starts with {}", size, from);
-        return categoryService.getCategories(from, size);
+    public ResponseEntity<Collection<CategoryDto>> getCategories(@RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                                 @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+                                                                 @RequestParam(value = "after", required = false) String after) throws InvalidCursorException {
+        log.info("Get {} categories starts with {} after {}", size, from, after);
+        return categoryService.getCategories(from, size, after).toResponseEntity();
     }
 
     /**
@@ -4,9 +4,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.interactionapi.bulk.InvalidPackedIdsException;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryWithSameNameAlreadyExistsException;
 import ru.practicum.interactionapi.exception.categoryservice.DeleteCategoryException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
 
 /**
  * Обработчик исключений, возникающих в сервисе.
@@ -45,4 +47,26 @@ public class CategoryServiceExceptionHandler {
     public ResponseEntity<Exception> handleDeleteCategoryException(final DeleteCategoryException deleteCategoryException) {
         return new ResponseEntity<>(deleteCategoryException, HttpStatus.CONFLICT);
     }
+
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+     *
+     * @param invalidCursorException исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleInvalidCursorException(final InvalidCursorException invalidCursorException) {
+        return new ResponseEntity<>(invalidCursorException, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+     *
+     * @param invalidPackedIdsException исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleInvalidPackedIdsException(final InvalidPackedIdsException invalidPackedIdsException) {
+        return new ResponseEntity<>(invalidPackedIdsException, HttpStatus.BAD_REQUEST);
+    }
 }
@@ -1,10 +1,13 @@
 package ru.practicum.categoryservice.service;
 
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 import ru.practicum.interactionapi.dto.categoryservice.CreateCategoryDto;
 import ru.practicum.interactionapi.dto.categoryservice.UpdateCategoryDto;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryWithSameNameAlreadyExistsException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.util.Collection;
 
@@ -24,11 +27,13 @@ public interface CategoryService {
     /**
      * Получить коллекцию категорий.
      *
-     * @param from количество категорий, которое необходимо пропустить.
-     * @param size количество категорий, которое необходимо получить.
-     * @return коллекция категорий.
+     * @param from  количество категорий, которое необходимо пропустить.
+     * @param size  количество категорий, которое необходимо получить.
+     * @param after позиция, после которой нужно получить категории; если задана, {@code from} не учитывается.
+     * @return страница категорий.
+     * @throws InvalidCursorException позиция {@code after} некорректная.
      */
-    Collection<CategoryDto> getCategories(int from, int size);
+    SeekPage<CategoryDto> getCategories(int from, int size, String after) throws InvalidCursorException;
 
     /**
      * Получить коллекцию категорий.
@@ -38,6 +43,14 @@ public interface CategoryService {
      */
     Collection<CategoryDto> getCategories(Collection<Long> categoriesIds);
 
+    /**
+     * Получить снимок справочника категорий.
+     *
+     * @param sinceVersion версия справочника, имеющаяся у вызывающей стороны.
+     * @return снимок справочника; категории не передаются, если версия совпадает с {@code sinceVersion}.
+     */
+    CategoryCatalogDto getCategoryCatalog(Long sinceVersion);
+
     /**
      * Получить категорию.
      *
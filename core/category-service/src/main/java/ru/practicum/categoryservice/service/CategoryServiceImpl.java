@@ -1,11 +1,12 @@
 package ru.practicum.categoryservice.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.categoryservice.model.Category;
 import ru.practicum.categoryservice.repository.CategoryRepository;
+import ru.practicum.categoryservice.service.catalog.CategoryCatalog;
 import ru.practicum.categoryservice.service.mapper.CategoryMapper;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 import ru.practicum.interactionapi.dto.categoryservice.CreateCategoryDto;
 import ru.practicum.interactionapi.dto.categoryservice.UpdateCategoryDto;
@@ -13,12 +14,16 @@ import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundExc
 import ru.practicum.interactionapi.exception.categoryservice.CategoryWithSameNameAlreadyExistsException;
 import ru.practicum.interactionapi.exception.categoryservice.DeleteCategoryException;
 import ru.practicum.interactionapi.openfeign.EventServiceClient;
-import ru.practicum.interactionapi.pageable.PageOffset;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekCursor;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Сервис для работы с категориями.
+ * Чтение категорий выполняется из справочника в памяти, который обновляется после каждого изменения.
  */
 @RequiredArgsConstructor
 @Service
@@ -33,6 +38,11 @@ public class CategoryServiceImpl implements CategoryService {
      */
     private final CategoryMapper categoryMapper;
 
+    /**
+     * Справочник категорий в памяти.
+     */
+    private final CategoryCatalog categoryCatalog;
+
     /**
      * Клиент сервиса для работы с событиями.
      */
@@ -47,15 +57,22 @@ public class CategoryServiceImpl implements CategoryService {
             throw new CategoryWithSameNameAlreadyExistsException(createCategoryDto.getName());
         }
 
-        return categoryMapper.mapToCategoryDto(categoryRepository.save(categoryMapper.mapToCategory(createCategoryDto)));
+        Category category = categoryRepository.save(categoryMapper.mapToCategory(createCategoryDto));
+        categoryCatalog.reload();
+
+        return categoryMapper.mapToCategoryDto(category);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Collection<CategoryDto> getCategories(int from, int size) {
-        return categoryMapper.mapToCategoryDtoCollection(categoryRepository.findAll(PageOffset.of(from, size, Sort.by("id").ascending())).getContent());
+    public SeekPage<CategoryDto> getCategories(int from, int size, String after) throws InvalidCursorException {
+        List<CategoryDto> categories = after != null
+                ? categoryCatalog.getCategoriesAfter(SeekCursor.decode(after).getId(), size)
+                : categoryCatalog.getCategories(from, size);
+
+        return SeekPage.of(categories, SeekPage.nextCursor(categories, size, category -> SeekCursor.of(category.getId())));
     }
 
     /**
@@ -63,7 +80,15 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public Collection<CategoryDto> getCategories(Collection<Long> categoriesIds) {
-        return categoryMapper.mapToCategoryDtoCollection(categoryRepository.findAllById(categoriesIds));
+        return categoryCatalog.getCategories(categoriesIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CategoryCatalogDto getCategoryCatalog(Long sinceVersion) {
+        return categoryCatalog.getCatalog(sinceVersion);
     }
 
     /**
@@ -71,7 +96,7 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public CategoryDto getCategory(long categoryId) throws CategoryNotFoundException {
-        return categoryMapper.mapToCategoryDto(categoryRepository.findById(categoryId).orElseThrow(() -> new CategoryNotFoundException(categoryId)));
+        return categoryCatalog.getCategory(categoryId).orElseThrow(() -> new CategoryNotFoundException(categoryId));
     }
 
     /**
@@ -89,7 +114,10 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         category.setName(updateCategoryDto.getName());
-        return categoryMapper.mapToCategoryDto(categoryRepository.save(category));
+        category = categoryRepository.save(category);
+        categoryCatalog.reload();
+
+        return categoryMapper.mapToCategoryDto(category);
     }
 
     /**
@@ -102,6 +130,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.delete(categoryRepository.findById(categoryId).orElseThrow(() -> new CategoryNotFoundException(categoryId)));
+        categoryCatalog.reload();
     }
 
     /**
@@ -109,6 +138,6 @@ public class CategoryServiceImpl implements CategoryService {
      */
     @Override
     public boolean isCategoryExists(long categoryId) {
-        return categoryRepository.existsById(categoryId);
+        return categoryCatalog.getCategory(categoryId).isPresent();
     }
 }
@@ -0,0 +1,198 @@
+package ru.practicum.categoryservice.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.categoryservice.repository.CategoryRepository;
+import ru.practicum.categoryservice.service.mapper.CategoryMapper;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Справочник категорий в памяти.
+ * <p>
+ * Все категории хранятся в неизменяемом снимке, который целиком заменяется после каждого изменения категорий.
+ * Снимок также периодически перечитывается из БД, чтобы подхватить изменения, сделанные другими экземплярами сервиса;
+ * версия снимка меняется, только если состав категорий изменился. Версия вычисляется как хэш упорядоченных
+ * по идентификатору категорий, поэтому все экземпляры сервиса выдают одну и ту же версию для одного и того же
+ * состава категорий, и реплика, обратившаяся к другому экземпляру, не получает устаревшие категории под прежней версией.
+ */
+@Component
+@Slf4j
+public class CategoryCatalog {
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+
+    /**
+     * Интервал (в миллисекундах) перечитывания справочника из БД.
+     */
+    private final long reloadIntervalMillis;
+
+    private volatile Snapshot snapshot;
+
+    private ScheduledExecutorService reloader;
+
+    public CategoryCatalog(CategoryRepository categoryRepository,
+                           CategoryMapper categoryMapper,
+                           @Value("${category-service.catalog.reload-interval-ms:30000}") long reloadIntervalMillis) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        reload();
+
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "category-catalog-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (Exception ex) {
+                log.warn("Не удалось перечитать справочник категорий: {}", ex.getMessage());
+            }
+        }, reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        reloader.shutdownNow();
+    }
+
+    /**
+     * Перечитать справочник из БД и заменить снимок, если состав категорий изменился.
+     */
+    public synchronized void reload() {
+        List<CategoryDto> categories = List.copyOf(categoryMapper.mapToCategoryDtoCollection(categoryRepository.findAll(Sort.by("id"))));
+
+        Snapshot current = snapshot;
+        if (current != null && current.categories().equals(categories)) {
+            return;
+        }
+
+        long version = versionOf(categories);
+        snapshot = new Snapshot(version, categories, categories.stream().collect(Collectors.toUnmodifiableMap(CategoryDto::getId, Function.identity())));
+        log.debug("Справочник категорий обновлён до версии {}: {} категорий", version, categories.size());
+    }
+
+    /**
+     * Получить снимок справочника.
+     *
+     * @param sinceVersion версия справочника, имеющаяся у вызывающей стороны.
+     * @return снимок справочника; категории не передаются, если версия совпадает с {@code sinceVersion}.
+     */
+    public CategoryCatalogDto getCatalog(Long sinceVersion) {
+        Snapshot current = snapshot;
+        return CategoryCatalogDto.builder()
+                .version(current.version())
+                .categories(sinceVersion != null && sinceVersion == current.version() ? null : current.categories())
+                .build();
+    }
+
+    /**
+     * Получить категорию по идентификатору.
+     *
+     * @param categoryId идентификатор категории.
+     * @return категория.
+     */
+    public Optional<CategoryDto> getCategory(long categoryId) {
+        return Optional.ofNullable(snapshot.byId().get(categoryId));
+    }
+
+    /**
+     * Получить категории по идентификаторам в порядке возрастания идентификатора. Несуществующие идентификаторы пропускаются.
+     *
+     * @param categoriesIds идентификаторы категорий.
+     * @return категории.
+     */
+    public Collection<CategoryDto> getCategories(Collection<Long> categoriesIds) {
+        Map<Long, CategoryDto> byId = snapshot.byId();
+        return categoriesIds.stream().distinct().sorted().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Получить категории в порядке возрастания идентификатора, начиная с позиции {@code from}.
+     *
+     * @param from количество категорий, которое необходимо пропустить.
+     * @param size количество категорий, которое необходимо получить.
+     * @return категории.
+     */
+    public List<CategoryDto> getCategories(int from, int size) {
+        List<CategoryDto> categories = snapshot.categories();
+        return categories.subList(Math.min(from, categories.size()), (int) Math.min((long) from + size, categories.size()));
+    }
+
+    /**
+     * Получить категории с идентификатором больше заданного в порядке возрастания идентификатора.
+     *
+     * @param after идентификатор, после которого нужно получить категории.
+     * @param size  количество категорий, которое необходимо получить.
+     * @return категории.
+     */
+    public List<CategoryDto> getCategoriesAfter(long after, int size) {
+        List<CategoryDto> categories = snapshot.categories();
+
+        int low = 0;
+        int high = categories.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (categories.get(middle).getId() <= after) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return categories.subList(low, (int) Math.min((long) low + size, categories.size()));
+    }
+
+    /**
+     * Вычислить версию справочника: первые 8 байт SHA-256 от идентификаторов и названий категорий.
+     *
+     * @param categories категории в порядке возрастания идентификатора.
+     * @return версия справочника.
+     */
+    private static long versionOf(List<CategoryDto> categories) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        for (CategoryDto category : categories) {
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(category.getId()).array());
+            digest.update(category.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Снимок справочника.
+     *
+     * @param version    версия снимка.
+     * @param categories категории в порядке возрастания идентификатора.
+     * @param byId       категории по идентификаторам.
+     */
+    private record Snapshot(long version, List<CategoryDto> categories, Map<Long, CategoryDto> byId) {
+    }
+}
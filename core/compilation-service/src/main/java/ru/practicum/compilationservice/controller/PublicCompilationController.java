@@ -4,8 +4,13 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.compilationservice.service.CompilationService;
+import ru.practicum.compilationservice.service.snapshot.PinnedCompilationsSnapshot;
 import ru.practicum.interactionapi.dto.compilationservice.CompilationDto;
 import ru.practicum.interactionapi.exception.compilationservice.CompilationNotFoundException;
 
@@ -24,6 +29,11 @@ public class PublicCompilationController {
      */
     private final CompilationService compilationService;
 
+    /**
+     * Снимок подборок событий, закреплённых на главной странице сайта.
+     */
+    private final PinnedCompilationsSnapshot pinnedCompilationsSnapshot;
+
     /**
      * Получить коллекцию подборок событий.
      *
@@ -40,6 +50,32 @@ public class PublicCompilationController {
         return compilationService.getCompilations(pinned, from, size);
     }
 
+    /**
+     * Получить коллекцию подборок событий, закреплённых на главной странице сайта.
+     * Ответ берётся из готового снимка; если версия у клиента совпадает, возвращается 304 без тела.
+     *
+     * @param from        количество подборок событий, которое необходимо пропустить.
+     * @param size        количество подборок событий, которое необходимо извлечь.
+     * @param ifNoneMatch тег версии ответа, имеющегося у клиента.
+     * @return сериализованная коллекция трансферных объектов, содержащих данные о подборках событий.
+     */
+    @GetMapping(params = "pinned=true")
+    public ResponseEntity<byte[]> getPinnedCompilations(@RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                        @RequestParam(defaultValue = "10") @Positive int size,
+                                                        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Get {} pinned compilations starts from {}", size, from);
+        PinnedCompilationsSnapshot.RenderedPage page = pinnedCompilationsSnapshot.getPage(from, size);
+
+        if (page.eTag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(page.eTag()).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(page.eTag())
+                .body(page.body());
+    }
+
     /**
      * Получить подборку событий по её идентификатору.
      *
@@ -2,6 +2,7 @@ package ru.practicum.compilationservice.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Collection;
 
@@ -31,7 +32,9 @@ public class Compilation {
 
     /**
      * Список идентификаторов событий, входящих в подборку.
+     * Загружается одним запросом сразу для всех подборок страницы.
      */
+    @BatchSize(size = 100)
     @CollectionTable(name = "compilation_events", joinColumns = @JoinColumn(name = "compilation_id"))
     @Column(name = "event_id")
     @ElementCollection
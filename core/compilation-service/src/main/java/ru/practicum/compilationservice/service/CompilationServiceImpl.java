@@ -8,6 +8,7 @@ import ru.practicum.compilationservice.model.Compilation;
 import ru.practicum.compilationservice.model.QCompilation;
 import ru.practicum.compilationservice.repository.CompilationRepository;
 import ru.practicum.compilationservice.service.mapper.CompilationMapper;
+import ru.practicum.compilationservice.service.snapshot.PinnedCompilationsSnapshot;
 import ru.practicum.interactionapi.dto.compilationservice.CompilationDto;
 import ru.practicum.interactionapi.dto.compilationservice.CreateCompilationDto;
 import ru.practicum.interactionapi.dto.compilationservice.UpdateCompilationDto;
@@ -32,6 +33,11 @@ public class CompilationServiceImpl implements CompilationService {
      */
     private final CompilationMapper compilationMapper;
 
+    /**
+     * Снимок подборок событий, закреплённых на главной странице сайта.
+     */
+    private final PinnedCompilationsSnapshot pinnedCompilationsSnapshot;
+
     /**
      * {@inheritDoc}
      */
@@ -43,7 +49,10 @@ public class CompilationServiceImpl implements CompilationService {
             compilation.setEvents(createCompilationDto.getEvents());
         }
 
-        return compilationMapper.mapToCompilationDto(compilationRepository.save(compilation));
+        compilation = compilationRepository.save(compilation);
+        pinnedCompilationsSnapshot.invalidate();
+
+        return compilationMapper.mapToCompilationDto(compilation);
     }
 
     /**
@@ -52,7 +61,7 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     public Collection<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
         BooleanBuilder predicate = new BooleanBuilder();
-        Pageable pageable = PageOffset.of(from, size);
+        Pageable pageable = PageOffset.of(from, size, PinnedCompilationsSnapshot.ORDER);
 
         if (pinned != null) {
             predicate.and(QCompilation.compilation.pinned.eq(pinned));
@@ -88,7 +97,10 @@ public class CompilationServiceImpl implements CompilationService {
             compilation.setPinned(updateCompilationDto.getPinned());
         }
 
-        return compilationMapper.mapToCompilationDto(compilationRepository.save(compilation));
+        compilation = compilationRepository.save(compilation);
+        pinnedCompilationsSnapshot.invalidate();
+
+        return compilationMapper.mapToCompilationDto(compilation);
     }
 
     /**
@@ -101,5 +113,6 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         compilationRepository.deleteById(compilationId);
+        pinnedCompilationsSnapshot.invalidate();
     }
 }
@@ -5,9 +5,16 @@ import org.springframework.stereotype.Component;
 import ru.practicum.compilationservice.model.Compilation;
 import ru.practicum.interactionapi.dto.compilationservice.CompilationDto;
 import ru.practicum.interactionapi.dto.compilationservice.CreateCompilationDto;
+import ru.practicum.interactionapi.dto.eventservice.EventShortDto;
 import ru.practicum.interactionapi.openfeign.EventServiceClient;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Маппер для сущности подборки событий.
@@ -41,21 +48,50 @@ public class CompilationMapper {
      * @return трансферный объект, содержащий данные о подборке событий.
      */
     public CompilationDto mapToCompilationDto(Compilation compilation) {
+        return mapToCompilationDto(compilation, getEvents(compilation.getEvents()));
+    }
+
+    /**
+     * Преобразовать коллекцию объектов подборок событий в коллекцию трансферных объектов, содержащих данные о подборках событий.
+     * События всех подборок запрашиваются у сервиса событий одним обращением.
+     *
+     * @param compilations коллекция объектов подборок событий.
+     * @return коллекция трансферных объектов, содержащих данные о подборках событий.
+     */
+    public Collection<CompilationDto> mapToCompilationDtoCollection(Collection<Compilation> compilations) {
+        Map<Long, EventShortDto> events = getEvents(compilations.stream()
+                .map(Compilation::getEvents)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        return compilations.stream().map(compilation -> mapToCompilationDto(compilation, events)).toList();
+    }
+
+    /**
+     * Преобразовать объект подборки событий в трансферный объект, взяв данные о событиях из {@code events}.
+     */
+    private CompilationDto mapToCompilationDto(Compilation compilation, Map<Long, EventShortDto> events) {
         return CompilationDto.builder()
                 .id(compilation.getId())
                 .title(compilation.getTitle())
-                .events(compilation.getEvents() != null ? eventServiceClient.getEvents(compilation.getEvents()) : null)
+                .events(compilation.getEvents() != null ? compilation.getEvents().stream().map(events::get).filter(Objects::nonNull).toList() : null)
                 .pinned(compilation.isPinned())
                 .build();
     }
 
     /**
-     * Преобразовать коллекцию объектов подборок событий в коллекцию трансферных объектов, содержащих данные о подборках событий.
+     * Получить события по идентификаторам одним обращением к сервису событий.
      *
-     * @param compilations коллекция объектов подборок событий.
-     * @return коллекция трансферных объектов, содержащих данные о подборках событий.
+     * @return события по идентификаторам.
      */
-    public Collection<CompilationDto> mapToCompilationDtoCollection(Collection<Compilation> compilations) {
-        return compilations.stream().map(this::mapToCompilationDto).toList();
+    private Map<Long, EventShortDto> getEvents(Collection<Long> eventIds) {
+        if (eventIds == null || eventIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<Long> uniqueIds = eventIds instanceof Set<Long> set ? set : new LinkedHashSet<>(eventIds);
+        return eventServiceClient.getEvents(uniqueIds).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity(), (first, second) -> first));
     }
 }
@@ -0,0 +1,225 @@
+package ru.practicum.compilationservice.service.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import ru.practicum.compilationservice.model.Compilation;
+import ru.practicum.compilationservice.model.QCompilation;
+import ru.practicum.compilationservice.repository.CompilationRepository;
+import ru.practicum.compilationservice.service.mapper.CompilationMapper;
+import ru.practicum.interactionapi.dto.compilationservice.CompilationDto;
+import ru.practicum.interactionapi.pageable.PageOffset;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Снимок подборок событий, закреплённых на главной странице сайта.
+ * <p>
+ * Закреплённые подборки вместе с данными о событиях загружаются целиком (не более {@link #maxCompilations} штук),
+ * а страницы сериализуются в JSON один раз и отдаются готовыми байтами с ETag. Снимок перестраивается в фоне
+ * при изменении подборок, а также периодически, чтобы обновить данные о событиях. Пока первый снимок не построен
+ * или подборки изменились после построения опубликованного снимка, страницы выбираются из БД без сохранения
+ * в снимке, поэтому изменения видны следующему же запросу. Если построить снимок не удалось, а подборки
+ * не менялись, прежний снимок остаётся в силе.
+ * Запросы к БД и сервису событий выполняются только в фоновом потоке или без блокировок.
+ */
+@Component
+@Slf4j
+public class PinnedCompilationsSnapshot {
+    /**
+     * Порядок подборок на страницах, совпадающий с порядком при обычной выборке.
+     */
+    public static final Sort ORDER = Sort.by("id");
+
+    private final CompilationRepository compilationRepository;
+    private final CompilationMapper compilationMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Максимальное количество подборок в снимке. Страницы за его пределами выбираются из БД.
+     */
+    private final int maxCompilations;
+
+    /**
+     * Максимальное количество сериализованных страниц, хранимых в снимке.
+     */
+    private final int maxPages;
+
+    /**
+     * Интервал (в миллисекундах) периодического перестроения снимка.
+     */
+    private final long refreshIntervalMillis;
+
+    /**
+     * Номер поколения подборок, увеличивается при каждом изменении. Снимок, построенный до изменения, не публикуется
+     * и не используется: его заменит снимок, перестроение которого запланировано изменением.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    private ScheduledExecutorService rebuilder;
+
+    public PinnedCompilationsSnapshot(CompilationRepository compilationRepository,
+                                      CompilationMapper compilationMapper,
+                                      ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${compilation-service.pinned-snapshot.max-compilations:1000}") int maxCompilations,
+                                      @Value("${compilation-service.pinned-snapshot.max-pages:64}") int maxPages,
+                                      @Value("${compilation-service.pinned-snapshot.refresh-interval-ms:30000}") long refreshIntervalMillis) {
+        this.compilationRepository = compilationRepository;
+        this.compilationMapper = compilationMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxCompilations = maxCompilations;
+        this.maxPages = maxPages;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pinned-compilations-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilder.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Получить сериализованную страницу закреплённых подборок событий.
+     *
+     * @param from количество подборок событий, которое необходимо пропустить.
+     * @param size количество подборок событий, которое необходимо извлечь.
+     * @return сериализованная страница подборок событий.
+     */
+    public RenderedPage getPage(int from, int size) {
+        Snapshot current = snapshot;
+        if (current == null || current.generation() != generation.get()
+                || (current.truncated() && (long) from + size > current.compilations().size())) {
+            return render(compilationMapper.mapToCompilationDtoCollection(loadPinned(from, size)));
+        }
+
+        PageKey key = new PageKey(from, size);
+        RenderedPage page = current.pages().get(key);
+        if (page != null) {
+            return page;
+        }
+
+        page = render(current.compilations().subList(Math.min(from, current.compilations().size()), (int) Math.min((long) from + size, current.compilations().size())));
+        if (current.pages().size() < maxPages) {
+            current.pages().putIfAbsent(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * Запланировать перестроение снимка после изменения подборок. До публикации нового снимка страницы выбираются из БД.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        rebuilder.execute(this::refresh);
+    }
+
+    /**
+     * Перестроить снимок в фоне. При ошибке остаётся прежний снимок.
+     */
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (Exception ex) {
+            log.warn("Не удалось построить снимок закреплённых подборок: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Загрузить закреплённые подборки и опубликовать новый снимок, если за время загрузки подборки не изменились.
+     * Выполняется только в фоновом потоке, поэтому перестроения не пересекаются.
+     */
+    private void rebuild() {
+        long started = generation.get();
+
+        List<Compilation> compilations = loadPinned(0, maxCompilations + 1);
+        boolean truncated = compilations.size() > maxCompilations;
+        List<CompilationDto> compilationDtos = List.copyOf(compilationMapper.mapToCompilationDtoCollection(
+                truncated ? compilations.subList(0, maxCompilations) : compilations));
+
+        if (generation.get() != started) {
+            log.debug("Подборки изменились во время построения снимка, снимок будет построен заново");
+            return;
+        }
+
+        snapshot = new Snapshot(started, compilationDtos, truncated, new ConcurrentHashMap<>());
+        log.debug("Построен снимок закреплённых подборок: {}", compilationDtos.size());
+    }
+
+    /**
+     * Загрузить страницу закреплённых подборок вместе с идентификаторами событий.
+     */
+    private List<Compilation> loadPinned(long from, int size) {
+        return transactionTemplate.execute(status -> {
+            List<Compilation> compilations = compilationRepository.findAll(QCompilation.compilation.pinned.isTrue(), PageOffset.of(from, size, ORDER)).getContent();
+            compilations.forEach(compilation -> Hibernate.initialize(compilation.getEvents()));
+            return compilations;
+        });
+    }
+
+    /**
+     * Сериализовать страницу подборок событий.
+     */
+    private RenderedPage render(Collection<CompilationDto> compilationDtos) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(compilationDtos);
+            return new RenderedPage(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Сериализованная страница подборок событий.
+     *
+     * @param body тело ответа в формате JSON.
+     * @param eTag тег версии тела ответа.
+     */
+    public record RenderedPage(byte[] body, String eTag) {
+    }
+
+    private record PageKey(int from, int size) {
+    }
+
+    /**
+     * Снимок закреплённых подборок.
+     *
+     * @param generation   номер поколения подборок, по которым построен снимок.
+     * @param compilations закреплённые подборки в порядке {@link #ORDER}.
+     * @param truncated    признак, что закреплённых подборок больше, чем вошло в снимок.
+     * @param pages        сериализованные страницы.
+     */
+    private record Snapshot(long generation, List<CompilationDto> compilations, boolean truncated, Map<PageKey, RenderedPage> pages) {
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.eventservice.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.eventservice.controller.interceptor.HitRecordingInterceptor;
+
+/**
+ * Настройка Spring MVC сервиса событий.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+    /**
+     * Перехватчик, регистрирующий обращения к публичному API событий.
+     */
+    private final HitRecordingInterceptor hitRecordingInterceptor;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(hitRecordingInterceptor).addPathPatterns("/events", "/events/*");
+    }
+}
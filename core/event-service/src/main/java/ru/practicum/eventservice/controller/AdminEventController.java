@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.eventservice.model.EventSearch;
 import ru.practicum.eventservice.service.EventService;
@@ -14,6 +15,8 @@ import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundExc
 import ru.practicum.interactionapi.exception.eventservice.EventEditingException;
 import ru.practicum.interactionapi.exception.eventservice.EventNotFoundException;
 import ru.practicum.interactionapi.exception.eventservice.InvalidEventDateException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -42,16 +45,19 @@ public class AdminEventController {
      * @param rangeEnd   дата и время, не позже которых должно произойти событие.
      * @param from       количество событий, которое нужно пропустить.
      * @param size       количество событий, которое нужно извлечь.
+     * @param after      позиция, после которой нужно извлечь события (из заголовка {@value SeekPage#NEXT_CURSOR_HEADER} предыдущего ответа).
      * @return коллекция событий.
+     * @throws InvalidCursorException позиция {@code after} некорректная.
      */
     @GetMapping
-    public Collection<EventDto> getEvents(@RequestParam(required = false) Collection<Long> users,
-                                          @RequestParam(required = false) Collection<EventState> states,
-                                          @RequestParam(required = false) Collection<Long> categories,
-                                          @RequestParam(required = false) String rangeStart,
-                                          @RequestParam(required = false) String rangeEnd,
-                                          @RequestParam(defaultValue = "0") int from,
-                                          @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<Collection<EventDto>> getEvents(@RequestParam(required = false) Collection<Long> users,
+                                                          @RequestParam(required = false) Collection<EventState> states,
+                                                          @RequestParam(required = false) Collection<Long> categories,
+                                                          @RequestParam(required = false) String rangeStart,
+                                                          @RequestParam(required = false) String rangeEnd,
+                                                          @RequestParam(defaultValue = "0") int from,
+                                                          @RequestParam(defaultValue = "10") int size,
+                                                          @RequestParam(required = false) String after) throws InvalidCursorException {
         EventSearch eventSearch = EventSearch.builder()
                 .users(users)
                 .states(states)
@@ -60,10 +66,11 @@ public class AdminEventController {
                 .rangeEnd(rangeEnd != null ? LocalDateTime.parse(rangeEnd, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null)
                 .from(from)
                 .size(size)
+                .after(after)
                 .build();
 
         log.info("Get events with params {}", eventSearch);
-        return eventService.getEvents(eventSearch);
+        return eventService.getEvents(eventSearch).toResponseEntity();
     }
 
     /**
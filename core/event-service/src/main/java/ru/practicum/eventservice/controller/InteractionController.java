@@ -3,11 +3,14 @@ package ru.practicum.eventservice.controller;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.eventservice.service.EventService;
+import ru.practicum.interactionapi.bulk.InvalidPackedIdsException;
+import ru.practicum.interactionapi.bulk.PackedIds;
 import ru.practicum.interactionapi.dto.eventservice.EventDto;
 import ru.practicum.interactionapi.dto.eventservice.EventShortDto;
+import ru.practicum.interactionapi.dto.eventservice.ParticipationEligibilityDto;
 import ru.practicum.interactionapi.exception.eventservice.EventNotFoundException;
 
 import java.util.Collection;
@@ -37,6 +40,20 @@ public class InteractionController {
         return eventService.getEvents(eventIds);
     }
 
+    /**
+     * Получить коллекцию событий по упакованным идентификаторам.
+     *
+     * @param packedEventIds идентификаторы событий, упакованные {@link PackedIds#pack(Collection)}.
+     * @return коллекция событий в порядке возрастания идентификаторов.
+     * @throws InvalidPackedIdsException упакованные идентификаторы повреждены.
+     */
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Collection<EventShortDto> lookupEvents(@RequestBody byte[] packedEventIds) throws InvalidPackedIdsException {
+        Collection<Long> eventIds = PackedIds.unpack(packedEventIds);
+        log.info("Lookup {} events", eventIds.size());
+        return eventService.getEvents(eventIds);
+    }
+
     /**
      * Получить событие.
      *
@@ -88,27 +105,48 @@ public class InteractionController {
 
     /**
      * Подтвердить участие в событии.
+     * Подтверждается не больше участников, чем осталось мест до ограничения на количество участников.
      *
      * @param eventId идентификатор события.
+     * @param count   количество участников, участие которых нужно подтвердить.
+     * @return количество подтверждённых участников.
      * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено.
      */
     @PatchMapping("/{eventId}/participation/confirm")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void confirmParticipation(@PathVariable @Positive Long eventId) throws EventNotFoundException {
-        log.info("Confirm participation for event with id={}", eventId);
-        eventService.confirmParticipation(eventId);
+    public int confirmParticipation(@PathVariable @Positive Long eventId,
+                                    @RequestParam(defaultValue = "1") @Positive int count) throws EventNotFoundException {
+        log.info("Confirm participation of {} for event with id={}", count, eventId);
+        return eventService.confirmParticipation(eventId, count);
+    }
+
+    /**
+     * Получить сведения о событии для создания заявки на участие и, если заявка подтверждается без модерации,
+     * атомарно занять место участника.
+     *
+     * @param eventId     идентификатор события.
+     * @param requesterId идентификатор пользователя, создающего заявку.
+     * @return сведения о событии и признак, занято ли место.
+     * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено.
+     */
+    @PostMapping("/{eventId}/participation/reserve")
+    public ParticipationEligibilityDto reserveParticipation(@PathVariable @Positive Long eventId,
+                                                            @RequestParam @Positive Long requesterId) throws EventNotFoundException {
+        log.info("Reserve participation of user with id={} for event with id={}", requesterId, eventId);
+        return eventService.reserveParticipation(eventId, requesterId);
     }
 
     /**
      * Отменить участие в событии.
      *
      * @param eventId идентификатор события.
+     * @param count   количество участников, участие которых нужно отменить.
+     * @return количество участников, участие которых отменено.
      * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено.
      */
     @PatchMapping("/{eventId}/participation/reject")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void rejectParticipation(@PathVariable @Positive Long eventId) throws EventNotFoundException {
-        log.info("Reject participation for event with id={}", eventId);
-        eventService.rejectParticipation(eventId);
+    public int rejectParticipation(@PathVariable @Positive Long eventId,
+                                   @RequestParam(defaultValue = "1") @Positive int count) throws EventNotFoundException {
+        log.info("Reject participation of {} for event with id={}", count, eventId);
+        return eventService.rejectParticipation(eventId, count);
     }
 }
@@ -1,11 +1,11 @@
 package ru.practicum.eventservice.controller;
 
-import ewm.CreateEndpointHitDto;
-import ewm.client.StatsClient;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.eventservice.model.EventSearch;
 import ru.practicum.eventservice.service.EventService;
@@ -13,6 +13,8 @@ import ru.practicum.interactionapi.dto.eventservice.EventDto;
 import ru.practicum.interactionapi.dto.eventservice.EventShortDto;
 import ru.practicum.interactionapi.dto.eventservice.EventSort;
 import ru.practicum.interactionapi.exception.eventservice.EventNotFoundException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -26,16 +28,13 @@ import java.util.Collection;
 @RestController
 @Slf4j
 public class PublicEventController {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     /**
      * Сервис для работы с событиями.
      */
     private final EventService eventService;
 
-    /**
-     * Клиент для сервера статистики.
-     */
-    private final StatsClient statsClient;
-
     /**
      * Получить коллекцию событий.
      *
@@ -44,46 +43,49 @@ public class PublicEventController {
      * @param paid          поиск только платных/бесплатных событий.
      * @param rangeStart    дата и время, не раньше которых должно произойти событие.
      * @param rangeEnd      дата и время, не позже которых должно произойти событие.
+     * @param lat           широта точки, вокруг которой нужно искать события.
+     * @param lon           долгота точки, вокруг которой нужно искать события.
+     * @param radius        радиус (в километрах) вокруг точки; учитывается вместе с {@code lat} и {@code lon}.
      * @param onlyAvailable только события, у которых не исчерпан лимит запросов на участие.
      * @param sort          способ сортировки событий.
      * @param from          количество событий, которое нужно пропустить.
      * @param size          количество событий, которое нужно извлечь.
-     * @param request       HTTP-запрос.
+     * @param after         позиция, после которой нужно извлечь события (из заголовка {@value SeekPage#NEXT_CURSOR_HEADER} предыдущего ответа).
      * @return коллекция событий.
+     * @throws InvalidCursorException позиция {@code after} некорректная.
      */
     @GetMapping
-    public Collection<EventShortDto> getEvents(@RequestParam(required = false) String text,
-                                               @RequestParam(required = false) Collection<@Positive Long> categories,
-                                               @RequestParam(required = false) Boolean paid,
-                                               @RequestParam(required = false) String rangeStart,
-                                               @RequestParam(required = false) String rangeEnd,
-                                               @RequestParam(defaultValue = "false") boolean onlyAvailable,
-                                               @RequestParam(required = false) EventSort sort,
-                                               @RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "10") int size,
-                                               HttpServletRequest request) {
-        try {
-            EventSearch eventSearch = EventSearch.builder()
-                    .text(text)
-                    .categories(categories)
-                    .paid(paid)
-                    .rangeStart(rangeStart != null ? LocalDateTime.parse(rangeStart, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null)
-                    .rangeEnd(rangeEnd != null ? LocalDateTime.parse(rangeEnd, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : null)
-                    .onlyAvailable(onlyAvailable)
-                    .sort(sort)
-                    .from(from)
-                    .size(size)
-                    .build();
+    public ResponseEntity<Collection<EventShortDto>> getEvents(@RequestParam(required = false) String text,
+                                                               @RequestParam(required = false) Collection<@Positive Long> categories,
+                                                               @RequestParam(required = false) Boolean paid,
+                                                               @RequestParam(required = false) String rangeStart,
+                                                               @RequestParam(required = false) String rangeEnd,
+                                                               @RequestParam(required = false) @DecimalMin("-90") @DecimalMax("90") Double lat,
+                                                               @RequestParam(required = false) @DecimalMin("-180") @DecimalMax("180") Double lon,
+                                                               @RequestParam(required = false) @Positive Double radius,
+                                                               @RequestParam(defaultValue = "false") boolean onlyAvailable,
+                                                               @RequestParam(required = false) EventSort sort,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size,
+                                                               @RequestParam(required = false) String after) throws InvalidCursorException {
+        EventSearch eventSearch = EventSearch.builder()
+                .text(text)
+                .categories(categories)
+                .paid(paid)
+                .rangeStart(rangeStart != null ? LocalDateTime.parse(rangeStart, DATE_TIME_FORMATTER) : null)
+                .rangeEnd(rangeEnd != null ? LocalDateTime.parse(rangeEnd, DATE_TIME_FORMATTER) : null)
+                .lat(lat)
+                .lon(lon)
+                .radius(radius)
+                .onlyAvailable(onlyAvailable)
+                .sort(sort)
+                .from(from)
+                .size(size)
+                .after(after)
+                .build();
 
-            log.info("Get events with params {}", eventSearch);
-            return eventService.getPublishedEvents(eventSearch);
-        } finally {
-            try {
-                statsClient.sendHit(new CreateEndpointHitDto("event-service", request.getRequestURI(), request.getRemoteAddr(), LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
-            } catch (Exception ex) {
-                log.error(ex.getMessage());
-            }
-        }
+        log.info("Get events with params {}", eventSearch);
+        return eventService.getPublishedEvents(eventSearch).toResponseEntity();
     }
 
     /**
@@ -94,17 +96,8 @@ public class PublicEventController {
      * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено или ещё не опубликовано.
      */
     @GetMapping("/{eventId}")
-    public EventDto getPublishedEventById(@PathVariable @Positive Long eventId, HttpServletRequest request) throws EventNotFoundException {
+    public EventDto getPublishedEventById(@PathVariable @Positive Long eventId) throws EventNotFoundException {
         log.info("Get published event with id = {}", eventId);
-
-        try {
-            return eventService.getPublishedEventById(eventId);
-        } finally {
-            try {
-                statsClient.sendHit(new CreateEndpointHitDto("event-service", request.getRequestURI(), request.getRemoteAddr(), LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
-            } catch (Exception ex) {
-                log.error(ex.getMessage());
-            }
-        }
+        return eventService.getPublishedEventById(eventId);
     }
 }
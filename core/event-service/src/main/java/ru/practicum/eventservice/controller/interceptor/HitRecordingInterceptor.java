@@ -0,0 +1,52 @@
+package ru.practicum.eventservice.controller.interceptor;
+
+import ewm.CreateEndpointHitDto;
+import ewm.client.StatsClient;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Перехватчик, регистрирующий обращения к публичному API событий на сервере статистики.
+ * Обращение ставится в очередь {@link StatsClient} после обработки запроса и отправляется асинхронно,
+ * поэтому время ответа не зависит от сервера статистики.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HitRecordingInterceptor implements HandlerInterceptor {
+    /**
+     * Идентификатор сервиса, под которым регистрируются обращения.
+     */
+    private static final String APP = "event-service";
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Клиент для сервера статистики.
+     */
+    private final StatsClient statsClient;
+
+    /**
+     * Зарегистрировать обращение после завершения обработки запроса, в том числе завершившейся ошибкой.
+     *
+     * @param request  HTTP-запрос.
+     * @param response HTTP-ответ.
+     * @param handler  обработчик запроса.
+     * @param ex       исключение, возникшее при обработке запроса.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        try {
+            statsClient.sendHit(new CreateEndpointHitDto(APP, request.getRequestURI(), request.getRemoteAddr(), LocalDateTime.now().format(DATE_TIME_FORMATTER)));
+        } catch (Exception e) {
+            log.error(e.getMessage());
+        }
+    }
+}
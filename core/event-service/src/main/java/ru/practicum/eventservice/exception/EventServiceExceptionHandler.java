@@ -4,12 +4,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.interactionapi.bulk.InvalidPackedIdsException;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
+import ru.practicum.interactionapi.exception.categoryservice.CategoryServiceUnavailableException;
 import ru.practicum.interactionapi.exception.eventservice.AccessToEventForbiddenException;
 import ru.practicum.interactionapi.exception.eventservice.EventEditingException;
 import ru.practicum.interactionapi.exception.eventservice.EventNotFoundException;
 import ru.practicum.interactionapi.exception.eventservice.InvalidEventDateException;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
+import ru.practicum.interactionapi.exception.userservice.UserServiceUnavailableException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
 
 /**
  * Обработчик исключений, возникающих в сервисе.
@@ -38,6 +42,17 @@ public class EventServiceExceptionHandler {
         return new ResponseEntity<>(categoryNotFoundException, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если сервис управления категориями недоступен.
+     *
+     * @param categoryServiceUnavailableException исключение, выбрасываемое сервисом, если сервис управления категориями недоступен.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleCategoryServiceUnavailableException(final CategoryServiceUnavailableException categoryServiceUnavailableException) {
+        return new ResponseEntity<>(categoryServiceUnavailableException, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Обработать исключение, выбрасываемое сервисом, если была произведена попытка редактирования события, которое запрещено редактировать.
      *
@@ -60,6 +75,17 @@ public class EventServiceExceptionHandler {
         return new ResponseEntity<>(eventNotFoundException, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+     *
+     * @param invalidCursorException исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleInvalidCursorException(final InvalidCursorException invalidCursorException) {
+        return new ResponseEntity<>(invalidCursorException, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Обработать исключение, выбрасываемое сервисом, если дата события некорректная.
      *
@@ -71,6 +97,17 @@ public class EventServiceExceptionHandler {
         return new ResponseEntity<>(invalidEventDateException, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+     *
+     * @param invalidPackedIdsException исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleInvalidPackedIdsException(final InvalidPackedIdsException invalidPackedIdsException) {
+        return new ResponseEntity<>(invalidPackedIdsException, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Обработать исключение, выбрасываемое сервисом, если пользователь не был найден.
      *
@@ -81,4 +118,15 @@ public class EventServiceExceptionHandler {
     public ResponseEntity<Exception> handleUserNotFoundException(final UserNotFoundException userNotFoundException) {
         return new ResponseEntity<>(userNotFoundException, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если сервис управления пользователями недоступен.
+     *
+     * @param userServiceUnavailableException исключение, выбрасываемое сервисом, если сервис управления пользователями недоступен.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleUserServiceUnavailableException(final UserServiceUnavailableException userServiceUnavailableException) {
+        return new ResponseEntity<>(userServiceUnavailableException, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
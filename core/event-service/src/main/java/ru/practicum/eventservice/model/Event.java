@@ -3,7 +3,6 @@ package ru.practicum.eventservice.model;
 import jakarta.persistence.*;
 import lombok.*;
 import ru.practicum.eventservice.repository.converter.EventStateConverter;
-import ru.practicum.eventservice.repository.converter.LocationConverter;
 import ru.practicum.interactionapi.dto.eventservice.EventState;
 
 import java.time.LocalDateTime;
@@ -72,8 +71,7 @@ public class Event {
     /**
      * Широта и долгота места проведения события.
      */
-    @Column(name = "location", nullable = false)
-    @Convert(converter = LocationConverter.class)
+    @Embedded
     private Location location;
 
     /**
@@ -104,10 +102,18 @@ public class Event {
 
     /**
      * Количество одобренных заявок на участие в данном событии.
+     * Изменяется только атомарными обновлениями хранилища, поэтому при сохранении события не записывается.
      */
-    @Column(name = "confirmed_requests")
+    @Column(name = "confirmed_requests", updatable = false)
     private int confirmedRequests;
 
+    /**
+     * Количество просмотров события.
+     * Синхронизируется с сервером статистики в фоне и используется только для сортировки.
+     */
+    @Column(name = "views", insertable = false, updatable = false)
+    private long views;
+
     /**
      * Состояние события.
      */
@@ -49,6 +49,21 @@ public class EventSearch {
      */
     private LocalDateTime rangeEnd;
 
+    /**
+     * Широта точки, вокруг которой нужно искать события.
+     */
+    private Double lat;
+
+    /**
+     * Долгота точки, вокруг которой нужно искать события.
+     */
+    private Double lon;
+
+    /**
+     * Радиус (в километрах) вокруг точки, в котором нужно искать события.
+     */
+    private Double radius;
+
     /**
      * Только события, у которых не исчерпан лимит запросов на участие.
      */
@@ -68,4 +83,9 @@ public class EventSearch {
      * Количество событий, которое нужно извлечь.
      */
     private int size;
+
+    /**
+     * Позиция, после которой нужно извлечь события; если задана, {@link #from} не учитывается.
+     */
+    private String after;
 }
@@ -1,5 +1,7 @@
 package ru.practicum.eventservice.model;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,15 +13,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder(toBuilder = true)
 @Data
+@Embeddable
 @NoArgsConstructor
 public class Location {
     /**
      * Широта.
      */
+    @Column(name = "lat", nullable = false)
     private float lat;
 
     /**
      * Долгота.
      */
+    @Column(name = "lon", nullable = false)
     private float lon;
 }
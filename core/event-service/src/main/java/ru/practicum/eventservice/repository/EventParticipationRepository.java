@@ -0,0 +1,29 @@
+package ru.practicum.eventservice.repository;
+
+/**
+ * Контракт атомарного изменения количества подтверждённых участников событий.
+ * <p>
+ * Каждое изменение выполняется одним запросом {@code UPDATE … RETURNING}, после которого контекст персистентности
+ * очищается, чтобы загруженные ранее события не хранили прежнее количество подтверждённых участников.
+ */
+public interface EventParticipationRepository {
+    /**
+     * Атомарно занять места участников события.
+     * Занимается не больше мест, чем осталось до ограничения на количество участников.
+     *
+     * @param eventId идентификатор события.
+     * @param count   количество мест, которое нужно занять.
+     * @return количество занятых мест; {@code null}, если мест не осталось или событие не найдено.
+     */
+    Integer reserveParticipation(Long eventId, int count);
+
+    /**
+     * Атомарно освободить места участников события.
+     * Освобождается не больше мест, чем подтверждено.
+     *
+     * @param eventId идентификатор события.
+     * @param count   количество мест, которое нужно освободить.
+     * @return количество освобождённых мест; {@code null}, если событие не найдено.
+     */
+    Integer releaseParticipation(Long eventId, int count);
+}
@@ -0,0 +1,77 @@
+package ru.practicum.eventservice.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Реализация атомарного изменения количества подтверждённых участников событий.
+ * <p>
+ * Строка события блокируется подзапросом {@code FOR UPDATE} только на время запроса, поэтому одновременные изменения
+ * выполняются по очереди и видят актуальное количество участников. Запрос возвращает строки, поэтому выполняется
+ * как выборка, а не через {@code @Modifying}.
+ */
+@RequiredArgsConstructor
+public class EventParticipationRepositoryImpl implements EventParticipationRepository {
+    private static final String RESERVE_PARTICIPATION = """
+            UPDATE events AS e
+            SET confirmed_requests = e.confirmed_requests + g.granted
+            FROM (SELECT id,
+                         CASE WHEN participant_limit = 0 THEN :count
+                              ELSE LEAST(:count, participant_limit - confirmed_requests) END AS granted
+                  FROM events
+                  WHERE id = :eventId
+                  FOR UPDATE) AS g
+            WHERE e.id = g.id AND g.granted > 0
+            RETURNING g.granted
+            """;
+
+    private static final String RELEASE_PARTICIPATION = """
+            UPDATE events AS e
+            SET confirmed_requests = e.confirmed_requests - g.released
+            FROM (SELECT id, LEAST(:count, confirmed_requests) AS released
+                  FROM events
+                  WHERE id = :eventId
+                  FOR UPDATE) AS g
+            WHERE e.id = g.id
+            RETURNING g.released
+            """;
+
+    private final EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Integer reserveParticipation(Long eventId, int count) {
+        return update(RESERVE_PARTICIPATION, eventId, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Integer releaseParticipation(Long eventId, int count) {
+        return update(RELEASE_PARTICIPATION, eventId, count);
+    }
+
+    /**
+     * Выполнить изменение и очистить контекст персистентности.
+     *
+     * @return значение, возвращённое запросом; {@code null}, если запрос не изменил ни одной строки.
+     */
+    private Integer update(String sql, Long eventId, int count) {
+        entityManager.flush();
+        List<?> result = entityManager.createNativeQuery(sql)
+                .setParameter("eventId", eventId)
+                .setParameter("count", count)
+                .getResultList();
+        entityManager.clear();
+
+        return result.isEmpty() ? null : ((Number) result.get(0)).intValue();
+    }
+}
@@ -4,10 +4,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import ru.practicum.eventservice.model.Event;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Контракт хранилища данных о событиях
  */
-public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPredicateExecutor<Event>, EventParticipationRepository {
     /**
      * Проверить существуют ли события с данной категорией.
      *
@@ -15,4 +18,12 @@ public interface EventRepository extends JpaRepository<Event, Long>, QuerydslPre
      * @return признак существуют ли события с данной категорией.
      */
     boolean existsByCategoryId(Long categoryId);
+
+    /**
+     * Получить события по идентификаторам в порядке возрастания идентификатора.
+     *
+     * @param ids идентификаторы событий.
+     * @return коллекция событий.
+     */
+    List<Event> findAllByIdInOrderByIdAsc(Collection<Long> ids);
 }
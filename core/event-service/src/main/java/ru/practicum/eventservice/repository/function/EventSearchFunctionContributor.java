@@ -0,0 +1,79 @@
+package ru.practicum.eventservice.repository.function;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Функции полнотекстового и географического поиска событий для HQL/QueryDSL.
+ * <p>
+ * Поисковый вектор строится из заголовка (вес A), краткого (вес B) и полного (вес C) описаний.
+ * Выражение вектора совпадает с выражением GIN-индекса {@code ix_events_search} из {@code schema.sql},
+ * а точка места проведения - с выражением GiST-индекса {@code ix_events_location}, поэтому при изменении
+ * выражений индексы нужно пересоздать с теми же выражениями.
+ * Условие публикации события записывается литералом и совпадает с условием частичных индексов
+ * {@code ix_events_published_*}: с параметром вместо литерала планировщик не может использовать эти индексы
+ * в общем (generic) плане подготовленного запроса.
+ */
+public class EventSearchFunctionContributor implements FunctionContributor {
+    /**
+     * Проверка соответствия события поисковому запросу: {@code event_search_match(title, annotation, description, text)}.
+     */
+    public static final String MATCH = "event_search_match";
+
+    /**
+     * Релевантность события поисковому запросу: {@code event_search_rank(title, annotation, description, text)}.
+     */
+    public static final String RANK = "event_search_rank";
+
+    /**
+     * Попадание места проведения события в прямоугольник:
+     * {@code event_location_within(lat, lon, minLat, minLon, maxLat, maxLon)}.
+     */
+    public static final String LOCATION_WITHIN = "event_location_within";
+
+    /**
+     * Расстояние (в километрах) от места проведения события до точки по формуле гаверсинусов:
+     * {@code event_distance_km(lat, lon, pointLat, pointLon)}.
+     */
+    public static final String DISTANCE_KM = "event_distance_km";
+
+    /**
+     * Проверка того, что событие опубликовано: {@code event_published(state)}.
+     */
+    public static final String PUBLISHED = "event_published";
+
+    /**
+     * Средний радиус Земли (в километрах).
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final String VECTOR = "(setweight(to_tsvector('russian', ?1), 'A')"
+            + " || setweight(to_tsvector('russian', ?2), 'B')"
+            + " || setweight(to_tsvector('russian', ?3), 'C'))";
+
+    private static final String QUERY = "websearch_to_tsquery('russian', ?4)";
+
+    private static final String LOCATION = "point(?2, ?1)";
+
+    private static final String HAVERSINE = "(2 * " + EARTH_RADIUS_KM + " * asin(least(1, sqrt("
+            + "power(sin(radians(?3 - ?1) / 2), 2)"
+            + " + cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2)))))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(MATCH, "(" + VECTOR + " @@ " + QUERY + ")",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(RANK, "ts_rank(" + VECTOR + ", " + QUERY + ")",
+                basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE));
+        functionContributions.getFunctionRegistry().registerPattern(LOCATION_WITHIN, "(" + LOCATION + " <@ box(point(?4, ?3), point(?6, ?5)))",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(DISTANCE_KM, HAVERSINE,
+                basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE));
+        functionContributions.getFunctionRegistry().registerPattern(PUBLISHED, "(?1 = 'PUBLISHED')",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
@@ -4,6 +4,7 @@ import ru.practicum.eventservice.model.EventSearch;
 import ru.practicum.interactionapi.dto.eventservice.CreateEventDto;
 import ru.practicum.interactionapi.dto.eventservice.EventDto;
 import ru.practicum.interactionapi.dto.eventservice.EventShortDto;
+import ru.practicum.interactionapi.dto.eventservice.ParticipationEligibilityDto;
 import ru.practicum.interactionapi.dto.eventservice.UpdateEventDto;
 import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
 import ru.practicum.interactionapi.exception.eventservice.AccessToEventForbiddenException;
@@ -11,6 +12,8 @@ import ru.practicum.interactionapi.exception.eventservice.EventEditingException;
 import ru.practicum.interactionapi.exception.eventservice.EventNotFoundException;
 import ru.practicum.interactionapi.exception.eventservice.InvalidEventDateException;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.util.Collection;
 
@@ -51,17 +54,19 @@ public interface EventService {
      * Получить коллекцию событий.
      *
      * @param search объект, содержащий параметры поиска событий.
-     * @return коллекция трансферных объектов, содержащий краткую информацию по событиям.
+     * @return страница трансферных объектов, содержащих информацию по событиям.
+     * @throws InvalidCursorException позиция {@code search.after} некорректная.
      */
-    Collection<EventDto> getEvents(EventSearch search);
+    SeekPage<EventDto> getEvents(EventSearch search) throws InvalidCursorException;
 
     /**
      * Получить коллекцию событий.
      *
      * @param search объект, содержащий параметры поиска событий.
-     * @return коллекция трансферных объектов, содержащий краткую информацию по событиям.
+     * @return страница трансферных объектов, содержащих краткую информацию по событиям.
+     * @throws InvalidCursorException позиция {@code search.after} некорректная.
      */
-    Collection<EventShortDto> getPublishedEvents(EventSearch search);
+    SeekPage<EventShortDto> getPublishedEvents(EventSearch search) throws InvalidCursorException;
 
     /**
      * Получить событие, добавленное текущим пользователем.
@@ -137,17 +142,35 @@ public interface EventService {
 
     /**
      * Подтвердить участие в событии.
+     * Подтверждается не больше участников, чем осталось мест до ограничения на количество участников.
      *
      * @param eventId идентификатор события.
+     * @param count   количество участников, участие которых нужно подтвердить.
+     * @return количество подтверждённых участников.
+     * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено.
+     */
+    int confirmParticipation(Long eventId, int count) throws EventNotFoundException;
+
+    /**
+     * Получить сведения о событии для создания заявки на участие.
+     * Если событие опубликовано, пользователь не является его инициатором, места ещё есть и заявки подтверждаются
+     * без модерации, место участника занимается атомарно в том же вызове.
+     *
+     * @param eventId     идентификатор события.
+     * @param requesterId идентификатор пользователя, создающего заявку.
+     * @return сведения о событии и признак, занято ли место.
      * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено.
      */
-    void confirmParticipation(Long eventId) throws EventNotFoundException;
+    ParticipationEligibilityDto reserveParticipation(Long eventId, Long requesterId) throws EventNotFoundException;
 
     /**
      * Отменить участие в событии.
+     * Отменяется не больше участников, чем подтверждено.
      *
      * @param eventId идентификатор события.
+     * @param count   количество участников, участие которых нужно отменить.
+     * @return количество участников, участие которых отменено.
      * @throws EventNotFoundException событие с идентификатором {@code eventId} не найдено.
      */
-    void rejectParticipation(Long eventId) throws EventNotFoundException;
+    int rejectParticipation(Long eventId, int count) throws EventNotFoundException;
 }
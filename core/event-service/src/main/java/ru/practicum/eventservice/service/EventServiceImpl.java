@@ -2,17 +2,22 @@ package ru.practicum.eventservice.service;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
-import ewm.client.StatsClient;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.querydsl.QSort;
 import org.springframework.stereotype.Service;
 import ru.practicum.eventservice.model.Event;
 import ru.practicum.eventservice.model.EventSearch;
 import ru.practicum.eventservice.model.Location;
 import ru.practicum.eventservice.model.QEvent;
 import ru.practicum.eventservice.repository.EventRepository;
+import ru.practicum.eventservice.repository.function.EventSearchFunctionContributor;
+import ru.practicum.eventservice.service.category.CategoryCatalogReplica;
 import ru.practicum.eventservice.service.mapper.EventMapper;
+import ru.practicum.eventservice.service.views.EventViewsCache;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 import ru.practicum.interactionapi.dto.eventservice.*;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
@@ -22,11 +27,15 @@ import ru.practicum.interactionapi.exception.eventservice.EventEditingException;
 import ru.practicum.interactionapi.exception.eventservice.EventNotFoundException;
 import ru.practicum.interactionapi.exception.eventservice.InvalidEventDateException;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
-import ru.practicum.interactionapi.openfeign.CategoryServiceClient;
 import ru.practicum.interactionapi.openfeign.UserServiceClient;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
 import ru.practicum.interactionapi.pageable.PageOffset;
+import ru.practicum.interactionapi.pageable.SeekCursor;
+import ru.practicum.interactionapi.pageable.SeekPage;
+import ru.practicum.interactionapi.pageable.SeekRequest;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -37,6 +46,7 @@ import java.util.Objects;
  */
 @RequiredArgsConstructor
 @Service
+@Slf4j
 public class EventServiceImpl implements EventService {
     /**
      * Хранилище данных о событиях.
@@ -49,14 +59,14 @@ public class EventServiceImpl implements EventService {
     private final EventMapper eventMapper;
 
     /**
-     * Клиент для сервиса управления категориями событий.
+     * Локальная копия справочника категорий.
      */
-    private final CategoryServiceClient categoryServiceClient;
+    private final CategoryCatalogReplica categoryCatalogReplica;
 
     /**
-     * Клиент для сервера статистики.
+     * Кэш количества просмотров событий.
      */
-    private final StatsClient statsClient;
+    private final EventViewsCache eventViewsCache;
 
     /**
      * Клиент для сервиса управления пользователями.
@@ -72,15 +82,8 @@ public class EventServiceImpl implements EventService {
             throw new InvalidEventDateException("Дата и время события должна быть больше текущих даты и времени не менее, чем на 2 часа");
         }
 
-        if (!userServiceClient.isUserExists(initiatorId)) {
-            throw new UserNotFoundException(initiatorId);
-        }
-        if (!categoryServiceClient.isCategoryExists(createEventDto.getCategory())) {
-            throw new CategoryNotFoundException(createEventDto.getCategory());
-        }
-
-        UserDto initiator = userServiceClient.getUser(initiatorId);
-        CategoryDto category = categoryServiceClient.getCategory(createEventDto.getCategory());
+        UserDto initiator = getUser(initiatorId);
+        CategoryDto category = getCategory(createEventDto.getCategory());
 
         Event event = eventMapper.mapToEvent(createEventDto, initiator.getId(), category.getId());
         eventRepository.save(event);
@@ -93,11 +96,7 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public Collection<EventDto> getEvents(Long initiatorId, int from, int size) throws UserNotFoundException {
-        if (!userServiceClient.isUserExists(initiatorId)) {
-            throw new UserNotFoundException(initiatorId);
-        }
-
-        UserDto initiator = userServiceClient.getUser(initiatorId);
+        UserDto initiator = getUser(initiatorId);
 
         Predicate predicate = QEvent.event.initiatorId.eq(initiator.getId());
         PageOffset pageOffset = PageOffset.of(from, size, Sort.by("id").ascending());
@@ -110,23 +109,25 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public Collection<EventShortDto> getEvents(Collection<Long> eventIds) {
-        return eventMapper.mapToEventShortDtoCollection(eventRepository.findAllById(eventIds));
+        return eventMapper.mapToEventShortDtoCollection(eventRepository.findAllByIdInOrderByIdAsc(eventIds));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Collection<EventDto> getEvents(EventSearch search) {
-        return eventMapper.mapToEventDtoCollection(getEventsByEventSearch(search));
+    public SeekPage<EventDto> getEvents(EventSearch search) throws InvalidCursorException {
+        List<Event> events = getEventsByEventSearch(search, false);
+        return SeekPage.of(eventMapper.mapToEventDtoCollection(events), getNextCursor(search, events));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Collection<EventShortDto> getPublishedEvents(EventSearch search) {
-        return eventMapper.mapToEventShortDtoCollection(getEventsByEventSearch(search));
+    public SeekPage<EventShortDto> getPublishedEvents(EventSearch search) throws InvalidCursorException {
+        List<Event> events = getEventsByEventSearch(search, true);
+        return SeekPage.of(eventMapper.mapToEventShortDtoCollection(events), getNextCursor(search, events));
     }
 
     /**
@@ -140,7 +141,7 @@ public class EventServiceImpl implements EventService {
             throw new AccessToEventForbiddenException(eventId);
         }
 
-        return eventMapper.mapToEventDto(event, userServiceClient.getUser(initiatorId), categoryServiceClient.getCategory(event.getCategoryId()), getEventStats(event.getId()));
+        return eventMapper.mapToEventDto(event, getUser(initiatorId), getCategory(event.getCategoryId()), getEventStats(event.getId()));
     }
 
     /**
@@ -154,7 +155,7 @@ public class EventServiceImpl implements EventService {
             throw new EventNotFoundException(eventId);
         }
 
-        return eventMapper.mapToEventDto(event, userServiceClient.getUser(event.getInitiatorId()), categoryServiceClient.getCategory(event.getCategoryId()), getEventStats(event.getId()));
+        return eventMapper.mapToEventDto(event, getUser(event.getInitiatorId()), getCategory(event.getCategoryId()), getEventStats(event.getId()));
     }
 
     /**
@@ -189,7 +190,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventDto.getCategory() != null) {
-            if (!categoryServiceClient.isCategoryExists(updateEventDto.getCategory())) {
+            if (categoryCatalogReplica.getCategory(updateEventDto.getCategory()).isEmpty()) {
                 throw new CategoryNotFoundException(updateEventDto.getCategory());
             }
 
@@ -226,7 +227,7 @@ public class EventServiceImpl implements EventService {
             }
         }
 
-        return eventMapper.mapToEventDto(eventRepository.save(event), userServiceClient.getUser(event.getInitiatorId()), categoryServiceClient.getCategory(event.getCategoryId()), getEventStats(eventId));
+        return eventMapper.mapToEventDto(eventRepository.save(event), getUser(event.getInitiatorId()), getCategory(event.getCategoryId()), getEventStats(eventId));
     }
 
     /**
@@ -265,7 +266,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateEventDto.getCategory() != null) {
-            if (!categoryServiceClient.isCategoryExists(updateEventDto.getCategory())) {
+            if (categoryCatalogReplica.getCategory(updateEventDto.getCategory()).isEmpty()) {
                 throw new CategoryNotFoundException(updateEventDto.getCategory());
             }
 
@@ -300,7 +301,7 @@ public class EventServiceImpl implements EventService {
             }
         }
 
-        return eventMapper.mapToEventDto(eventRepository.save(event), userServiceClient.getUser(initiatorId), categoryServiceClient.getCategory(event.getCategoryId()), getEventStats(eventId));
+        return eventMapper.mapToEventDto(eventRepository.save(event), getUser(initiatorId), getCategory(event.getCategoryId()), getEventStats(eventId));
     }
 
     /**
@@ -331,39 +332,106 @@ public class EventServiceImpl implements EventService {
      * {@inheritDoc}
      */
     @Override
-    public void confirmParticipation(Long eventId) throws EventNotFoundException {
-        Event event = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
-        event.setConfirmedRequests(event.getConfirmedRequests() + 1);
+    public int confirmParticipation(Long eventId, int count) throws EventNotFoundException {
+        Integer granted = eventRepository.reserveParticipation(eventId, count);
+        if (granted != null) {
+            return granted;
+        }
 
-        eventRepository.save(event);
+        if (!eventRepository.existsById(eventId)) {
+            throw new EventNotFoundException(eventId);
+        }
+        return 0;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void rejectParticipation(Long eventId) throws EventNotFoundException {
+    public ParticipationEligibilityDto reserveParticipation(Long eventId, Long requesterId) throws EventNotFoundException {
         Event event = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
-        event.setConfirmedRequests(event.getConfirmedRequests() - 1);
 
-        eventRepository.save(event);
+        boolean published = Objects.equals(event.getState(), EventState.PUBLISHED);
+        boolean autoConfirmed = event.getParticipantLimit() == 0 || !event.isRequestModeration();
+        boolean available = event.getParticipantLimit() == 0 || event.getConfirmedRequests() < event.getParticipantLimit();
+
+        boolean reserved = published && autoConfirmed && available && !Objects.equals(event.getInitiatorId(), requesterId)
+                && confirmParticipation(eventId, 1) > 0;
+        if (reserved) {
+            // Контекст персистентности очищен при занятии места: событие перечитывается с актуальным количеством участников
+            event = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+        }
+
+        return ParticipationEligibilityDto.builder()
+                .eventId(event.getId())
+                .published(published)
+                .initiatorId(event.getInitiatorId())
+                .participantLimit(event.getParticipantLimit())
+                .confirmedRequests(event.getConfirmedRequests())
+                .requestModeration(event.isRequestModeration())
+                .reserved(reserved)
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rejectParticipation(Long eventId, int count) throws EventNotFoundException {
+        Integer released = eventRepository.releaseParticipation(eventId, count);
+        if (released == null) {
+            throw new EventNotFoundException(eventId);
+        }
+
+        if (released < count) {
+            log.warn("Отмена участия {} участников события с id={}, освобождено только {}", count, eventId, released);
+        }
+        return released;
     }
 
     // region Facilities
 
+    /**
+     * Получить пользователя из сервиса управления пользователями.
+     *
+     * @param userId идентификатор пользователя.
+     * @return пользователь.
+     * @throws UserNotFoundException пользователь не найден.
+     */
+    private UserDto getUser(Long userId) throws UserNotFoundException {
+        return userServiceClient.getUser(userId).orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    /**
+     * Получить категорию события из локальной копии справочника категорий.
+     *
+     * @param categoryId идентификатор категории.
+     * @return категория.
+     * @throws CategoryNotFoundException категория не найдена.
+     */
+    private CategoryDto getCategory(Long categoryId) throws CategoryNotFoundException {
+        return categoryCatalogReplica.getCategory(categoryId).orElseThrow(() -> new CategoryNotFoundException(categoryId));
+    }
+
     /**
      * Получить коллекцию событий с определенными параметрами.
      *
-     * @param search объект, содержащий параметры поиска событий.
+     * @param search        объект, содержащий параметры поиска событий.
+     * @param publishedOnly признак отбора только опубликованных событий.
      * @return коллекция трансферных объектов, содержащий краткую информацию по событиям.
      */
-    private Collection<Event> getEventsByEventSearch(EventSearch search) {
+    private List<Event> getEventsByEventSearch(EventSearch search, boolean publishedOnly) throws InvalidCursorException {
         QEvent event = QEvent.event;
 
         BooleanBuilder predicate = new BooleanBuilder();
 
-        if (search.getText() != null && !search.getText().isBlank()) {
-            predicate.and(event.annotation.contains(search.getText()).or(event.description.contains(search.getText())));
+        if (publishedOnly) {
+            predicate.and(Expressions.booleanTemplate(EventSearchFunctionContributor.PUBLISHED + "({0}) = true", event.state));
+        }
+
+        if (isTextSearch(search)) {
+            predicate.and(Expressions.booleanTemplate(EventSearchFunctionContributor.MATCH + "({0}, {1}, {2}, {3}) = true",
+                    event.title, event.annotation, event.description, search.getText()));
         }
 
         if (search.getUsers() != null && !search.getUsers().isEmpty()) {
@@ -390,25 +458,139 @@ public class EventServiceImpl implements EventService {
             predicate.and(event.eventDate.before(search.getRangeEnd()));
         }
 
+        if (search.getLat() != null && search.getLon() != null && search.getRadius() != null) {
+            predicate.and(getLocationPredicate(search.getLat(), search.getLon(), search.getRadius()));
+        }
+
         if (search.isOnlyAvailable()) {
             predicate.and(event.participantLimit.eq(0).or(event.confirmedRequests.lt(event.participantLimit)));
         }
 
-        Pageable pageable = PageOffset.of(search.getFrom(), search.getSize());
-        if (search.getSort() != null) {
+        Sort sort = Sort.by("id");
+        if (search.getSort() == null && isTextSearch(search)) {
+            NumberExpression<Double> rank = Expressions.numberTemplate(Double.class, EventSearchFunctionContributor.RANK + "({0}, {1}, {2}, {3})",
+                    event.title, event.annotation, event.description, search.getText());
+            sort = new QSort(rank.desc(), event.id.asc());
+        } else if (search.getSort() != null) {
             switch (search.getSort()) {
-                case EventSort.EVENT_DATE ->
-                        pageable = PageOffset.of(search.getFrom(), search.getSize(), Sort.Direction.ASC, "eventDate");
-                case EventSort.VIEWS ->
-                        pageable = PageOffset.of(search.getFrom(), search.getSize(), Sort.Direction.ASC, "views");
+                case EventSort.EVENT_DATE -> sort = Sort.by("eventDate").and(Sort.by("id"));
+                case EventSort.VIEWS -> sort = Sort.by(Sort.Direction.DESC, "views").and(Sort.by("id"));
             }
         }
 
+        if (search.getAfter() != null) {
+            SeekRequest seekRequest = SeekRequest.of(SeekCursor.decode(search.getAfter()), search.getSize(), sort);
+            predicate.and(getSeekPredicate(search, seekRequest.getAfter()));
+            return eventRepository.findBy(predicate, query -> query.sortBy(seekRequest.getSort()).limit(seekRequest.getPageSize()).all());
+        }
+
         List<Event> result = new ArrayList<>();
-        eventRepository.findAll(predicate, pageable).forEach(result::add);
+        eventRepository.findAll(predicate, PageOffset.of(search.getFrom(), search.getSize(), sort)).forEach(result::add);
         return result;
     }
 
+    /**
+     * Получить условие отбора событий, место проведения которых находится не дальше {@code radius} километров от точки.
+     * Прямоугольник, описанный вокруг окружности, отбирается по GiST-индексу, точное расстояние проверяется только для попавших в него событий.
+     *
+     * @param lat    широта точки.
+     * @param lon    долгота точки.
+     * @param radius радиус (в километрах).
+     * @return условие отбора событий.
+     */
+    private Predicate getLocationPredicate(double lat, double lon, double radius) {
+        QEvent event = QEvent.event;
+
+        double latDelta = Math.toDegrees(radius / EventSearchFunctionContributor.EARTH_RADIUS_KM);
+        double minLat = Math.max(-90, lat - latDelta);
+        double maxLat = Math.min(90, lat + latDelta);
+
+        double minLon = -180;
+        double maxLon = 180;
+        if (minLat > -90 && maxLat < 90) {
+            double lonDelta = Math.toDegrees(Math.asin(Math.min(1, Math.sin(radius / EventSearchFunctionContributor.EARTH_RADIUS_KM) / Math.cos(Math.toRadians(lat)))));
+            if (lon - lonDelta >= -180 && lon + lonDelta <= 180) {
+                minLon = lon - lonDelta;
+                maxLon = lon + lonDelta;
+            }
+        }
+
+        return new BooleanBuilder()
+                .and(Expressions.booleanTemplate(EventSearchFunctionContributor.LOCATION_WITHIN + "({0}, {1}, {2}, {3}, {4}, {5}) = true",
+                        event.location.lat, event.location.lon, minLat, minLon, maxLat, maxLon))
+                .and(Expressions.numberTemplate(Double.class, EventSearchFunctionContributor.DISTANCE_KM + "({0}, {1}, {2}, {3})",
+                        event.location.lat, event.location.lon, lat, lon).loe(radius));
+    }
+
+    /**
+     * Проверить, задан ли текст для поиска событий.
+     *
+     * @param search объект, содержащий параметры поиска событий.
+     * @return признак, задан ли текст для поиска.
+     */
+    private boolean isTextSearch(EventSearch search) {
+        return search.getText() != null && !search.getText().isBlank();
+    }
+
+    /**
+     * Получить условие отбора событий, следующих за позицией в порядке сортировки поиска.
+     * Для поиска по тексту, упорядоченного по релевантности, постраничный просмотр по позиции не поддерживается.
+     *
+     * @param search объект, содержащий параметры поиска событий.
+     * @param after  позиция.
+     * @return условие отбора событий.
+     * @throws InvalidCursorException позиция не соответствует сортировке поиска.
+     */
+    private Predicate getSeekPredicate(EventSearch search, SeekCursor after) throws InvalidCursorException {
+        QEvent event = QEvent.event;
+
+        if (search.getSort() == null) {
+            if (isTextSearch(search)) {
+                throw new InvalidCursorException(search.getAfter());
+            }
+            return event.id.gt(after.getId());
+        }
+
+        if (after.getSortKey() == null) {
+            throw new InvalidCursorException(search.getAfter());
+        }
+
+        try {
+            return switch (search.getSort()) {
+                case EventSort.EVENT_DATE -> {
+                    LocalDateTime eventDate = LocalDateTime.parse(after.getSortKey());
+                    yield event.eventDate.gt(eventDate).or(event.eventDate.eq(eventDate).and(event.id.gt(after.getId())));
+                }
+                case EventSort.VIEWS -> {
+                    long views = Long.parseLong(after.getSortKey());
+                    yield event.views.lt(views).or(event.views.eq(views).and(event.id.gt(after.getId())));
+                }
+            };
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new InvalidCursorException(search.getAfter());
+        }
+    }
+
+    /**
+     * Получить позицию страницы, следующей за найденными событиями.
+     *
+     * @param search объект, содержащий параметры поиска событий.
+     * @param events найденные события в порядке сортировки поиска.
+     * @return позиция следующей страницы или {@code null}, если её нет или поиск упорядочен по релевантности.
+     */
+    private SeekCursor getNextCursor(EventSearch search, List<Event> events) {
+        if (search.getSort() == null && isTextSearch(search)) {
+            return null;
+        }
+
+        return SeekPage.nextCursor(events, search.getSize(), event -> search.getSort() == null
+                ? SeekCursor.of(event.getId())
+                : switch (search.getSort()) {
+                    case EventSort.EVENT_DATE -> SeekCursor.of(event.getEventDate(), event.getId());
+                    case EventSort.VIEWS -> SeekCursor.of(event.getViews(), event.getId());
+                });
+    }
+
     /**
      * Получить статистику просмотра события.
      *
@@ -416,14 +598,7 @@ public class EventServiceImpl implements EventService {
      * @return статистика просмотра события.
      */
     private Long getEventStats(long eventId) {
-        LocalDateTime start = LocalDateTime.of(2020, 5, 5, 0, 0, 0);
-        LocalDateTime end = LocalDateTime.of(2035, 5, 5, 0, 0, 0);
-
-        try {
-            return Objects.requireNonNull(statsClient.getStats(start, end, List.of("/events/" + eventId), true).getBody()).getFirst().getHits();
-        } catch (Throwable ex) {
-            return 0L;
-        }
+        return eventViewsCache.getViews(eventId);
     }
 
     // endregion
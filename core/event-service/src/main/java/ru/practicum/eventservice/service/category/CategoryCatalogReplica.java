@@ -0,0 +1,218 @@
+package ru.practicum.eventservice.service.category;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
+import ru.practicum.interactionapi.exception.categoryservice.CategoryServiceUnavailableException;
+import ru.practicum.interactionapi.openfeign.CategoryServiceClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Локальная копия справочника категорий.
+ * <p>
+ * Справочник периодически запрашивается у сервиса категорий с указанием имеющейся версии; если версия не изменилась,
+ * категории не передаются. Поиск категорий выполняется в локальной неизменяемой копии. Если категория не найдена,
+ * справочник немедленно запрашивается с указанием версии, чтобы только что созданные категории были видны
+ * без ожидания очередного обновления. Повторный промах по тому же идентификатору не приводит к запросу раньше,
+ * чем через {@link #minRefreshIntervalMillis}. Если справочник запросить не удалось, выбрасывается
+ * {@link CategoryServiceUnavailableException}.
+ */
+@Component
+@Slf4j
+public class CategoryCatalogReplica {
+    /**
+     * Количество отмеченных промахов, после которого устаревшие отметки удаляются.
+     */
+    private static final int MAX_MISSES = 10000;
+
+    /**
+     * Клиент для сервиса управления категориями событий.
+     */
+    private final CategoryServiceClient categoryServiceClient;
+
+    /**
+     * Интервал (в миллисекундах) периодического обновления справочника.
+     */
+    private final long refreshIntervalMillis;
+
+    /**
+     * Минимальный интервал (в миллисекундах) между обновлениями справочника при повторном отсутствии одной и той же категории.
+     */
+    private final long minRefreshIntervalMillis;
+
+    /**
+     * Время (в миллисекундах) последнего обновления справочника по идентификаторам отсутствующих категорий.
+     */
+    private final Map<Long, Long> misses = new ConcurrentHashMap<>();
+
+    private volatile Replica replica = new Replica(null, Map.of());
+
+    private ScheduledExecutorService refresher;
+
+    public CategoryCatalogReplica(CategoryServiceClient categoryServiceClient,
+                                  @Value("${event-service.category-catalog.refresh-interval-ms:5000}") long refreshIntervalMillis,
+                                  @Value("${event-service.category-catalog.min-refresh-interval-ms:500}") long minRefreshIntervalMillis) {
+        this.categoryServiceClient = categoryServiceClient;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.minRefreshIntervalMillis = minRefreshIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "category-catalog-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Получить категорию по идентификатору.
+     *
+     * @param categoryId идентификатор категории.
+     * @return категория.
+     * @throws CategoryServiceUnavailableException категории нет в копии, а справочник запросить не удалось.
+     */
+    public Optional<CategoryDto> getCategory(long categoryId) throws CategoryServiceUnavailableException {
+        return Optional.ofNullable(getCategories(List.of(categoryId)).get(categoryId));
+    }
+
+    /**
+     * Получить категории по идентификаторам. Несуществующие идентификаторы пропускаются.
+     *
+     * @param categoriesIds идентификаторы категорий.
+     * @return категории по идентификаторам.
+     * @throws CategoryServiceUnavailableException части категорий нет в копии, а справочник запросить не удалось.
+     */
+    public Map<Long, CategoryDto> getCategories(Collection<Long> categoriesIds) throws CategoryServiceUnavailableException {
+        Map<Long, CategoryDto> categories = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+
+        Replica current = replica;
+        for (Long categoryId : categoriesIds) {
+            CategoryDto category = current.categories().get(categoryId);
+            if (category != null) {
+                categories.put(categoryId, category);
+            } else {
+                missingIds.add(categoryId);
+            }
+        }
+
+        if (missingIds.isEmpty()) {
+            return categories;
+        }
+
+        if (isNewMiss(missingIds)) {
+            current = refreshOnMiss();
+        } else if (current.version() == null) {
+            throw new CategoryServiceUnavailableException(new IllegalStateException("Справочник категорий ещё не получен"));
+        }
+
+        for (Long categoryId : missingIds) {
+            CategoryDto category = current.categories().get(categoryId);
+            if (category != null) {
+                categories.put(categoryId, category);
+            }
+        }
+
+        return categories;
+    }
+
+    /**
+     * Отметить промах по идентификаторам категорий.
+     *
+     * @param categoriesIds идентификаторы отсутствующих категорий.
+     * @return признак, что хотя бы по одному идентификатору справочник не обновлялся
+     * в течение {@link #minRefreshIntervalMillis}.
+     */
+    private boolean isNewMiss(Collection<Long> categoriesIds) {
+        long now = System.currentTimeMillis();
+        if (misses.size() > MAX_MISSES) {
+            misses.values().removeIf(missedAt -> now - missedAt >= minRefreshIntervalMillis);
+        }
+
+        boolean newMiss = false;
+        for (Long categoryId : categoriesIds) {
+            Long missedAt = misses.get(categoryId);
+            if (missedAt == null || now - missedAt >= minRefreshIntervalMillis) {
+                misses.put(categoryId, now);
+                newMiss = true;
+            }
+        }
+        return newMiss;
+    }
+
+    /**
+     * Обновить справочник при отсутствии категории.
+     *
+     * @return обновлённая копия справочника.
+     * @throws CategoryServiceUnavailableException справочник запросить не удалось.
+     */
+    private Replica refreshOnMiss() throws CategoryServiceUnavailableException {
+        try {
+            return update();
+        } catch (Exception ex) {
+            log.warn("Не удалось обновить справочник категорий при отсутствии категории: {}", ex.getMessage());
+            throw new CategoryServiceUnavailableException(ex);
+        }
+    }
+
+    /**
+     * Периодически обновить справочник. При ошибке остаётся прежняя копия.
+     */
+    private void refresh() {
+        try {
+            update();
+        } catch (Exception ex) {
+            log.warn("Не удалось обновить справочник категорий: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Запросить изменения справочника у сервиса категорий. Если версия не изменилась, копия остаётся прежней.
+     *
+     * @return актуальная копия справочника.
+     */
+    private synchronized Replica update() {
+        Replica current = replica;
+        CategoryCatalogDto catalog = categoryServiceClient.getCategoryCatalog(current.version());
+        if (catalog.getCategories() != null) {
+            current = new Replica(catalog.getVersion(), catalog.getCategories().stream()
+                    .collect(Collectors.toUnmodifiableMap(CategoryDto::getId, Function.identity())));
+            replica = current;
+            log.debug("Справочник категорий обновлён до версии {}", catalog.getVersion());
+        }
+        return current;
+    }
+
+    /**
+     * Копия справочника.
+     *
+     * @param version    версия справочника; {@code null}, если справочник ещё не получен.
+     * @param categories категории по идентификаторам.
+     */
+    private record Replica(Long version, Map<Long, CategoryDto> categories) {
+    }
+}
@@ -1,44 +1,107 @@
 package ru.practicum.eventservice.service.mapper;
 
-import ewm.EndpointStatDto;
-import ewm.client.StatsClient;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import ru.practicum.eventservice.model.Event;
 import ru.practicum.eventservice.model.Location;
+import ru.practicum.eventservice.service.category.CategoryCatalogReplica;
+import ru.practicum.eventservice.service.views.EventViewsCache;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 import ru.practicum.interactionapi.dto.eventservice.*;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
-import ru.practicum.interactionapi.openfeign.CategoryServiceClient;
+import ru.practicum.interactionapi.exception.categoryservice.CategoryNotFoundException;
+import ru.practicum.interactionapi.exception.categoryservice.CategoryServiceUnavailableException;
+import ru.practicum.interactionapi.exception.userservice.UserServiceUnavailableException;
 import ru.practicum.interactionapi.openfeign.UserServiceClient;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Маппер для сущности события.
+ * <p>
+ * При преобразовании коллекций пользователи и просмотры запрашиваются параллельно в виртуальных потоках,
+ * поэтому время ответа определяется самым медленным из вызовов, а не их суммой. Каждый вызов ограничен собственным
+ * таймаутом. Инициатор — обязательная часть ответа, поэтому ошибка или превышение таймаута запроса пользователей
+ * приводит к {@link UserServiceUnavailableException}. Просмотры при ошибке считаются равными 0; такие случаи
+ * записываются в журнал и учитываются в метрике {@code event.enrichment.failures}.
+ * Категории берутся из локальной копии справочника категорий и тоже обязательны: неизвестная категория приводит
+ * к {@link CategoryNotFoundException}, а недоступный справочник - к {@link CategoryServiceUnavailableException}.
  */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class EventMapper {
     /**
-     * Клиент для сервиса управления категориями событий.
+     * Локальная копия справочника категорий.
      */
-    private final CategoryServiceClient categoryServiceClient;
+    private final CategoryCatalogReplica categoryCatalogReplica;
 
     /**
-     * Клиент для сервера статистики.
+     * Кэш количества просмотров событий.
      */
-    private final StatsClient statsClient;
+    private final EventViewsCache eventViewsCache;
 
     /**
      * Клиент для сервиса управления пользователями.
      */
     private final UserServiceClient userServiceClient;
 
+    /**
+     * Таймаут (в миллисекундах) запроса пользователей.
+     */
+    private final long usersTimeoutMillis;
+
+    /**
+     * Таймаут (в миллисекундах) запроса просмотров.
+     */
+    private final long viewsTimeoutMillis;
+
+    private final Counter usersFailures;
+    private final Counter viewsFailures;
+
+    /**
+     * Исполнитель запросов к другим сервисам: каждый запрос выполняется в отдельном виртуальном потоке.
+     */
+    private final ExecutorService enrichmentExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("event-mapper-enrichment-", 0).factory());
+
+    public EventMapper(CategoryCatalogReplica categoryCatalogReplica,
+                       EventViewsCache eventViewsCache,
+                       UserServiceClient userServiceClient,
+                       MeterRegistry meterRegistry,
+                       @Value("${event-service.enrichment.users-timeout-ms:1000}") long usersTimeoutMillis,
+                       @Value("${event-service.enrichment.views-timeout-ms:500}") long viewsTimeoutMillis) {
+        this.categoryCatalogReplica = categoryCatalogReplica;
+        this.eventViewsCache = eventViewsCache;
+        this.userServiceClient = userServiceClient;
+        this.usersTimeoutMillis = usersTimeoutMillis;
+        this.viewsTimeoutMillis = viewsTimeoutMillis;
+
+        this.usersFailures = Counter.builder("event.enrichment.failures")
+                .description("Количество неудачных запросов данных для событий к другим сервисам")
+                .tag("data", "users")
+                .register(meterRegistry);
+        this.viewsFailures = Counter.builder("event.enrichment.failures")
+                .description("Количество неудачных запросов данных для событий к другим сервисам")
+                .tag("data", "views")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        enrichmentExecutor.shutdownNow();
+    }
+
     /**
      * Преобразовать трансферный объект, содержащий данные для добавления нового события, в объект события.
      *
@@ -124,12 +187,12 @@ public class EventMapper {
      * @return коллекция трансферных объектов, содержащих информацию о событиях.
      */
     public Collection<EventDto> mapToEventDtoCollection(Collection<Event> events) {
-        Collection<Long> initiatorsIds = events.stream().map(Event::getInitiatorId).toList();
-        Collection<Long> categoriesIds = events.stream().map(Event::getCategoryId).toList();
+        CompletableFuture<Map<Long, UserDto>> initiatorsFuture = getUsersAsync(events);
+        CompletableFuture<Map<Long, Long>> eventViewsFuture = getEventStatsAsync(events);
 
-        Map<Long, UserDto> initiators = userServiceClient.getUsers(initiatorsIds).stream().collect(Collectors.toMap(UserDto::getId, userShortDto -> userShortDto));
-        Map<Long, CategoryDto> categories = categoryServiceClient.getCategories(categoriesIds).stream().collect(Collectors.toMap(CategoryDto::getId, category -> category));
-        Map<Long, Long> eventViews = getEventStats(events.stream().map(Event::getId).toList());
+        Map<Long, UserDto> initiators = getUsers(initiatorsFuture);
+        Map<Long, CategoryDto> categories = getCategories(events);
+        Map<Long, Long> eventViews = eventViewsFuture.join();
 
         return events.stream().map(event -> mapToEventDto(event, initiators.get(event.getInitiatorId()), categories.get(event.getCategoryId()), eventViews.getOrDefault(event.getId(), 0L))).toList();
     }
@@ -142,10 +205,10 @@ public class EventMapper {
      * @return коллекция трансферных объектов, содержащих информацию о событиях.
      */
     public Collection<EventDto> mapToEventDtoCollection(Collection<Event> events, UserDto initiator) {
-        Collection<Long> categoriesIds = events.stream().map(Event::getCategoryId).toList();
+        CompletableFuture<Map<Long, Long>> eventViewsFuture = getEventStatsAsync(events);
 
-        Map<Long, CategoryDto> categories = categoryServiceClient.getCategories(categoriesIds).stream().collect(Collectors.toMap(CategoryDto::getId, category -> category));
-        Map<Long, Long> eventViews = getEventStats(events.stream().map(Event::getId).toList());
+        Map<Long, CategoryDto> categories = getCategories(events);
+        Map<Long, Long> eventViews = eventViewsFuture.join();
 
         return events.stream().map(event -> mapToEventDto(event, initiator, categories.get(event.getCategoryId()), eventViews.getOrDefault(event.getId(), 0L))).toList();
     }
@@ -157,12 +220,12 @@ public class EventMapper {
      * @return коллекция трансферных объектов, содержащих краткую информацию о событиях.
      */
     public Collection<EventShortDto> mapToEventShortDtoCollection(Collection<Event> events) {
-        Collection<Long> initiatorsIds = events.stream().map(Event::getInitiatorId).toList();
-        Collection<Long> categoriesIds = events.stream().map(Event::getCategoryId).toList();
+        CompletableFuture<Map<Long, UserDto>> initiatorsFuture = getUsersAsync(events);
+        CompletableFuture<Map<Long, Long>> eventViewsFuture = getEventStatsAsync(events);
 
-        Map<Long, UserDto> initiators = userServiceClient.getUsers(initiatorsIds).stream().collect(Collectors.toMap(UserDto::getId, userShortDto -> userShortDto));
-        Map<Long, CategoryDto> categories = categoryServiceClient.getCategories(categoriesIds).stream().collect(Collectors.toMap(CategoryDto::getId, category -> category));
-        Map<Long, Long> eventViews = getEventStats(events.stream().map(Event::getId).toList());
+        Map<Long, UserDto> initiators = getUsers(initiatorsFuture);
+        Map<Long, CategoryDto> categories = getCategories(events);
+        Map<Long, Long> eventViews = eventViewsFuture.join();
 
         return events.stream().map(event -> mapToEventShortDto(event, initiators.get(event.getInitiatorId()), categories.get(event.getCategoryId()), eventViews.getOrDefault(event.getId(), 0L))).toList();
     }
@@ -175,33 +238,81 @@ public class EventMapper {
      * @return коллекция трансферных объектов, содержащих краткую информацию о событиях.
      */
     public Collection<EventShortDto> mapToEventShortDtoCollection(Collection<Event> events, UserDto initiator) {
-        Collection<Long> categoriesIds = events.stream().map(Event::getCategoryId).toList();
+        CompletableFuture<Map<Long, Long>> eventViewsFuture = getEventStatsAsync(events);
 
-        Map<Long, CategoryDto> categories = categoryServiceClient.getCategories(categoriesIds).stream().collect(Collectors.toMap(CategoryDto::getId, category -> category));
-        Map<Long, Long> eventViews = getEventStats(events.stream().map(Event::getId).toList());
+        Map<Long, CategoryDto> categories = getCategories(events);
+        Map<Long, Long> eventViews = eventViewsFuture.join();
 
         return events.stream().map(event -> mapToEventShortDto(event, initiator, categories.get(event.getCategoryId()), eventViews.getOrDefault(event.getId(), 0L))).toList();
     }
 
     /**
-     * Получить статистику просмотра событий.
+     * Запросить инициаторов событий.
      *
-     * @param eventIds идентификаторы событий.
-     * @return статистика просмотра событий.
+     * @param events коллекция объектов события.
+     * @return инициаторы событий по идентификаторам.
      */
-    private Map<Long, Long> getEventStats(Collection<Long> eventIds) {
-        Map<String, Long> urisMap = eventIds.stream().collect(Collectors.toMap((eventId) -> "/events/" + eventId, (eventId) -> eventId));
+    private CompletableFuture<Map<Long, UserDto>> getUsersAsync(Collection<Event> events) {
+        Collection<Long> initiatorsIds = events.stream().map(Event::getInitiatorId).distinct().toList();
 
-        LocalDateTime start = LocalDateTime.of(2020, 5, 5, 0, 0, 0);
-        LocalDateTime end = LocalDateTime.of(2035, 5, 5, 0, 0, 0);
+        return CompletableFuture.supplyAsync(() -> userServiceClient.getUsers(initiatorsIds).stream()
+                        .collect(Collectors.toMap(UserDto::getId, userDto -> userDto)), enrichmentExecutor)
+                .orTimeout(usersTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * Дождаться инициаторов событий.
+     *
+     * @param initiatorsFuture запрос инициаторов событий.
+     * @return инициаторы событий по идентификаторам.
+     * @throws UserServiceUnavailableException сервис пользователей не ответил за отведённое время или ответил ошибкой.
+     */
+    private Map<Long, UserDto> getUsers(CompletableFuture<Map<Long, UserDto>> initiatorsFuture) throws UserServiceUnavailableException {
         try {
-            return Objects.requireNonNull(statsClient.getStats(start, end, urisMap.keySet().stream().toList(), true).getBody())
-                    .stream()
-                    .collect(Collectors.toMap(dto -> urisMap.get(dto.getUri()), EndpointStatDto::getHits));
+            return initiatorsFuture.join();
+        } catch (CompletionException ex) {
+            usersFailures.increment();
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            log.warn("Не удалось получить пользователей для событий: {}", cause.toString());
+            throw new UserServiceUnavailableException(cause);
+        }
+    }
 
-        } catch (Throwable ex) {
-            return urisMap.values().stream().collect(Collectors.toMap((eventId) -> eventId, eventId -> 0L));
+    /**
+     * Получить категории событий из локальной копии справочника.
+     *
+     * @param events коллекция объектов события.
+     * @return категории событий по идентификаторам.
+     * @throws CategoryNotFoundException           категория одного из событий не найдена.
+     * @throws CategoryServiceUnavailableException категорий нет в копии, а справочник запросить не удалось.
+     */
+    private Map<Long, CategoryDto> getCategories(Collection<Event> events) throws CategoryNotFoundException, CategoryServiceUnavailableException {
+        Collection<Long> categoriesIds = events.stream().map(Event::getCategoryId).distinct().toList();
+        Map<Long, CategoryDto> categories = categoryCatalogReplica.getCategories(categoriesIds);
+        for (Long categoryId : categoriesIds) {
+            if (!categories.containsKey(categoryId)) {
+                log.warn("Категория с id={} не найдена в справочнике категорий", categoryId);
+                throw new CategoryNotFoundException(categoryId);
+            }
         }
+        return categories;
+    }
+
+    /**
+     * Запросить статистику просмотра событий.
+     *
+     * @param events коллекция объектов события.
+     * @return статистика просмотра событий.
+     */
+    private CompletableFuture<Map<Long, Long>> getEventStatsAsync(Collection<Event> events) {
+        Collection<Long> eventIds = events.stream().map(Event::getId).toList();
+
+        return CompletableFuture.supplyAsync(() -> eventViewsCache.getViews(eventIds), enrichmentExecutor)
+                .orTimeout(viewsTimeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    viewsFailures.increment();
+                    log.warn("Не удалось получить просмотры событий, просмотры будут равны 0: {}", ex.toString());
+                    return Map.of();
+                });
     }
 }
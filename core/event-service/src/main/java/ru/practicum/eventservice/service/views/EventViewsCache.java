@@ -0,0 +1,305 @@
+package ru.practicum.eventservice.service.views;
+
+import ewm.client.StatsClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш количества просмотров событий, полученного с сервера статистики.
+ * <p>
+ * Значение, загруженное не раньше {@link #refreshAfterMillis} назад, считается свежим. Более старое значение,
+ * но не старше {@link #maxStalenessMillis}, возвращается без обращения к серверу статистики и обновляется
+ * фоновым потоком (stale-while-revalidate). Отсутствующие и слишком старые значения загружаются синхронно
+ * одним запросом на все события. Фоновый поток обновляет только события, которые запрашивались
+ * в пределах {@link #maxStalenessMillis}, остальные вытесняются.
+ */
+@Component
+@Slf4j
+public class EventViewsCache {
+    /**
+     * Начало периода, за который учитываются просмотры.
+     */
+    private static final LocalDateTime STATS_START = LocalDateTime.of(2020, 5, 5, 0, 0, 0);
+
+    /**
+     * Окончание периода, за который учитываются просмотры.
+     */
+    private static final LocalDateTime STATS_END = LocalDateTime.of(2035, 5, 5, 0, 0, 0);
+
+    /**
+     * Клиент для сервера статистики.
+     */
+    private final StatsClient statsClient;
+
+    /**
+     * Записи кэша по идентификаторам событий.
+     */
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Максимальное количество событий в кэше.
+     */
+    private final int maxSize;
+
+    /**
+     * Возраст значения (в миллисекундах), после которого оно обновляется в фоне.
+     */
+    private final long refreshAfterMillis;
+
+    /**
+     * Максимальный возраст значения (в миллисекундах), которое может быть возвращено без загрузки.
+     */
+    private final long maxStalenessMillis;
+
+    /**
+     * Интервал (в миллисекундах) запуска фонового обновления.
+     */
+    private final long refreshIntervalMillis;
+
+    /**
+     * Максимальное количество событий в одном запросе к серверу статистики.
+     */
+    private final int batchSize;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Timer staleness;
+
+    private ScheduledExecutorService refresher;
+
+    public EventViewsCache(StatsClient statsClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${event-service.views-cache.max-size:10000}") int maxSize,
+                           @Value("${event-service.views-cache.refresh-after-ms:10000}") long refreshAfterMillis,
+                           @Value("${event-service.views-cache.max-staleness-ms:60000}") long maxStalenessMillis,
+                           @Value("${event-service.views-cache.refresh-interval-ms:5000}") long refreshIntervalMillis,
+                           @Value("${event-service.views-cache.batch-size:100}") int batchSize) {
+        this.statsClient = statsClient;
+        this.maxSize = maxSize;
+        this.refreshAfterMillis = refreshAfterMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.batchSize = batchSize;
+
+        this.hits = Counter.builder("event.views.cache.requests")
+                .description("Количество обращений к кэшу просмотров событий")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.staleHits = Counter.builder("event.views.cache.requests")
+                .description("Количество обращений к кэшу просмотров событий")
+                .tag("result", "stale")
+                .register(meterRegistry);
+        this.misses = Counter.builder("event.views.cache.requests")
+                .description("Количество обращений к кэшу просмотров событий")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.staleness = Timer.builder("event.views.cache.staleness")
+                .description("Возраст значений, возвращённых из кэша просмотров событий")
+                .register(meterRegistry);
+        Gauge.builder("event.views.cache.size", entries, Map::size)
+                .description("Количество событий в кэше просмотров")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-views-cache-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Получить количество просмотров события.
+     *
+     * @param eventId идентификатор события.
+     * @return количество просмотров события.
+     */
+    public long getViews(long eventId) {
+        return getViews(List.of(eventId)).getOrDefault(eventId, 0L);
+    }
+
+    /**
+     * Получить количество просмотров событий.
+     *
+     * @param eventIds идентификаторы событий.
+     * @return количество просмотров по идентификаторам событий.
+     */
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        long now = System.currentTimeMillis();
+
+        Map<Long, Long> views = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long eventId : new LinkedHashSet<>(eventIds)) {
+            Entry entry = entries.get(eventId);
+            long age = entry == null ? Long.MAX_VALUE : now - entry.loadedAt;
+
+            if (age > maxStalenessMillis) {
+                misses.increment();
+                missing.add(eventId);
+                continue;
+            }
+
+            if (age > refreshAfterMillis) {
+                staleHits.increment();
+            } else {
+                hits.increment();
+            }
+            staleness.record(Duration.ofMillis(age));
+
+            entry.lastAccessedAt = now;
+            views.put(eventId, entry.views);
+        }
+
+        if (!missing.isEmpty()) {
+            views.putAll(load(missing, now));
+        }
+
+        return views;
+    }
+
+    /**
+     * Загрузить количество просмотров событий с сервера статистики и сохранить в кэше.
+     * Если сервер статистики недоступен, возвращаются устаревшие значения из кэша или 0.
+     */
+    private Map<Long, Long> load(Collection<Long> eventIds, long now) {
+        Map<Long, Long> views = new HashMap<>();
+        try {
+            partition(List.copyOf(eventIds)).forEach(batch -> views.putAll(fetch(batch)));
+        } catch (Exception ex) {
+            log.warn("Не удалось получить просмотры {} событий с сервера статистики: {}", eventIds.size(), ex.getMessage());
+            return eventIds.stream().collect(Collectors.toMap(Function.identity(), eventId -> {
+                Entry entry = entries.get(eventId);
+                return entry != null ? entry.views : 0L;
+            }));
+        }
+
+        views.forEach((eventId, count) -> entries.compute(eventId, (id, entry) -> {
+            long lastAccessedAt = entry != null ? Math.max(entry.lastAccessedAt, now) : now;
+            return new Entry(count, System.currentTimeMillis(), lastAccessedAt);
+        }));
+        evictOverflow();
+
+        return views;
+    }
+
+    /**
+     * Обновить устаревшие значения событий, которые недавно запрашивались, и вытеснить остальные.
+     */
+    private void refresh() {
+        long now = System.currentTimeMillis();
+
+        List<Long> stale = new ArrayList<>();
+        entries.forEach((eventId, entry) -> {
+            if (now - entry.lastAccessedAt > maxStalenessMillis) {
+                entries.remove(eventId, entry);
+            } else if (now - entry.loadedAt > refreshAfterMillis) {
+                stale.add(eventId);
+            }
+        });
+
+        for (List<Long> batch : partition(stale)) {
+            try {
+                Map<Long, Long> views = fetch(batch);
+                long loadedAt = System.currentTimeMillis();
+                views.forEach((eventId, count) -> entries.computeIfPresent(eventId, (id, entry) -> new Entry(count, loadedAt, entry.lastAccessedAt)));
+            } catch (Exception ex) {
+                log.warn("Не удалось обновить просмотры {} событий: {}", batch.size(), ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Вытеснить давно не запрашивавшиеся события, если размер кэша превысил {@link #maxSize}.
+     */
+    private void evictOverflow() {
+        int overflow = entries.size() - maxSize;
+        if (overflow <= 0) {
+            return;
+        }
+
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccessedAt))
+                .limit(overflow)
+                .toList()
+                .forEach(entry -> entries.remove(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Разбить идентификаторы событий на пакеты по {@link #batchSize} штук.
+     */
+    private List<List<Long>> partition(List<Long> eventIds) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < eventIds.size(); from += batchSize) {
+            batches.add(eventIds.subList(from, Math.min(from + batchSize, eventIds.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Получить количество просмотров событий с сервера статистики.
+     * Для событий без просмотров возвращается 0.
+     */
+    private Map<Long, Long> fetch(Collection<Long> eventIds) {
+        Map<String, Long> urisMap = eventIds.stream().collect(Collectors.toMap(eventId -> "/events/" + eventId, eventId -> eventId));
+
+        Map<Long, Long> views = eventIds.stream().collect(Collectors.toMap(Function.identity(), eventId -> 0L));
+        Objects.requireNonNull(statsClient.getStats(STATS_START, STATS_END, urisMap.keySet().stream().toList(), true).getBody())
+                .stream()
+                .filter(dto -> urisMap.containsKey(dto.getUri()))
+                .forEach(dto -> views.put(urisMap.get(dto.getUri()), dto.getHits()));
+        return views;
+    }
+
+    /**
+     * Запись кэша.
+     */
+    private static final class Entry {
+        /**
+         * Количество просмотров.
+         */
+        private final long views;
+
+        /**
+         * Время загрузки значения.
+         */
+        private final long loadedAt;
+
+        /**
+         * Время последнего запроса значения.
+         */
+        private volatile long lastAccessedAt;
+
+        private Entry(long views, long loadedAt, long lastAccessedAt) {
+            this.views = views;
+            this.loadedAt = loadedAt;
+            this.lastAccessedAt = lastAccessedAt;
+        }
+    }
+}
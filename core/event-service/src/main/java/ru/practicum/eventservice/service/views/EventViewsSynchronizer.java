@@ -0,0 +1,148 @@
+package ru.practicum.eventservice.service.views;
+
+import ewm.client.StatsClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.interactionapi.dto.eventservice.EventState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая синхронизация столбца {@code views} таблицы событий с сервером статистики.
+ * <p>
+ * Опубликованные события обходятся пакетами по возрастанию идентификатора; для каждого пакета количество
+ * просмотров запрашивается одним обращением к серверу статистики и записывается одним пакетным обновлением.
+ * Столбец используется для сортировки событий по просмотрам в БД, поэтому просмотры запрашиваются в том же
+ * точном режиме, что и в {@link EventViewsCache}, иначе порядок сортировки расходился бы с показываемыми числами.
+ */
+@Component
+@Slf4j
+public class EventViewsSynchronizer {
+    /**
+     * Начало периода, за который учитываются просмотры.
+     */
+    private static final LocalDateTime STATS_START = LocalDateTime.of(2020, 5, 5, 0, 0, 0);
+
+    /**
+     * Окончание периода, за который учитываются просмотры.
+     */
+    private static final LocalDateTime STATS_END = LocalDateTime.of(2035, 5, 5, 0, 0, 0);
+
+    private static final String SELECT_PUBLISHED_IDS = "SELECT id FROM events WHERE state = ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_VIEWS = "UPDATE events SET views = ? WHERE id = ? AND views <> ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Клиент для сервера статистики.
+     */
+    private final StatsClient statsClient;
+
+    /**
+     * Интервал (в миллисекундах) между синхронизациями.
+     */
+    private final long syncIntervalMillis;
+
+    /**
+     * Количество событий, обрабатываемых одним запросом к серверу статистики.
+     */
+    private final int batchSize;
+
+    private ScheduledExecutorService synchronizer;
+
+    public EventViewsSynchronizer(JdbcTemplate jdbcTemplate,
+                                  StatsClient statsClient,
+                                  @Value("${event-service.views-sync.interval-ms:60000}") long syncIntervalMillis,
+                                  @Value("${event-service.views-sync.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsClient = statsClient;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        synchronizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-views-synchronizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        synchronizer.scheduleWithFixedDelay(this::synchronize, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronizer.shutdownNow();
+    }
+
+    /**
+     * Обновить количество просмотров всех опубликованных событий.
+     * При ошибке синхронизация прерывается до следующего запуска.
+     */
+    private void synchronize() {
+        long lastId = 0;
+        int updated = 0;
+
+        try {
+            List<Long> eventIds;
+            do {
+                eventIds = jdbcTemplate.queryForList(SELECT_PUBLISHED_IDS, Long.class, EventState.PUBLISHED.name(), lastId, batchSize);
+                if (eventIds.isEmpty()) {
+                    break;
+                }
+
+                updated += update(fetch(eventIds));
+                lastId = eventIds.getLast();
+            } while (eventIds.size() == batchSize);
+        } catch (Exception ex) {
+            log.warn("Не удалось синхронизировать просмотры событий: {}", ex.getMessage());
+            return;
+        }
+
+        log.debug("Синхронизированы просмотры событий, изменено {}", updated);
+    }
+
+    /**
+     * Получить количество просмотров событий с сервера статистики.
+     * Для событий без просмотров возвращается 0.
+     */
+    private Map<Long, Long> fetch(List<Long> eventIds) {
+        Map<String, Long> urisMap = eventIds.stream().collect(Collectors.toMap(eventId -> "/events/" + eventId, eventId -> eventId));
+
+        Map<Long, Long> views = eventIds.stream().collect(Collectors.toMap(eventId -> eventId, eventId -> 0L));
+        Objects.requireNonNull(statsClient.getStats(STATS_START, STATS_END, List.copyOf(urisMap.keySet()), true).getBody())
+                .stream()
+                .filter(dto -> urisMap.containsKey(dto.getUri()))
+                .forEach(dto -> views.put(urisMap.get(dto.getUri()), dto.getHits()));
+        return views;
+    }
+
+    /**
+     * Записать количество просмотров событий одним пакетным обновлением.
+     *
+     * @return количество изменённых событий.
+     */
+    private int update(Map<Long, Long> views) {
+        List<Object[]> args = views.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                .toList();
+
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(UPDATE_VIEWS, args)) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+}
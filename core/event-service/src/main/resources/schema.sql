@@ -9,15 +9,46 @@ CREATE TABLE IF NOT EXISTS events (
   description VARCHAR(7000) NOT NULL,
   event_date TIMESTAMP NOT NULL,
   category_id BIGINT NOT NULL,
-  location VARCHAR(50) NOT NULL,
+  lat REAL NOT NULL,
+  lon REAL NOT NULL,
   published_on TIMESTAMP,
   paid BOOLEAN NOT NULL DEFAULT FALSE,
   participant_limit INTEGER NOT NULL DEFAULT 0,
   request_moderation BOOLEAN NOT NULL DEFAULT TRUE,
   confirmed_requests INTEGER NOT NULL DEFAULT 0,
-  state VARCHAR(10) NOT NULL
+  state VARCHAR(10) NOT NULL,
+  views BIGINT NOT NULL DEFAULT 0
 );
 
+ALTER TABLE events ADD COLUMN IF NOT EXISTS lat REAL;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS lon REAL;
+DO '
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+             WHERE table_schema = CURRENT_SCHEMA() AND table_name = ''events'' AND column_name = ''location'') THEN
+    UPDATE events
+    SET lat = (location::json ->> ''lat'')::real,
+        lon = (location::json ->> ''lon'')::real
+    WHERE lat IS NULL OR lon IS NULL;
+    ALTER TABLE events DROP COLUMN location;
+  END IF;
+END
+';
+ALTER TABLE events ALTER COLUMN lat SET NOT NULL;
+ALTER TABLE events ALTER COLUMN lon SET NOT NULL;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS ix_events_initiator_id ON events (initiator_id, id);
+CREATE INDEX IF NOT EXISTS ix_events_category_id_event_date ON events (category_id, event_date);
+CREATE INDEX IF NOT EXISTS ix_events_state_event_date ON events (state, event_date);
+CREATE INDEX IF NOT EXISTS ix_events_published_event_date ON events (event_date, id) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS ix_events_published_paid_event_date ON events (paid, event_date, id) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS ix_events_location ON events USING GIST (POINT(lon, lat));
+CREATE INDEX IF NOT EXISTS ix_events_published_views ON events (views DESC, id) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS ix_events_search ON events USING GIN ((setweight(to_tsvector('russian', title), 'A')
+  || setweight(to_tsvector('russian', annotation), 'B')
+  || setweight(to_tsvector('russian', description), 'C')));
+
 ALTER TABLE events DROP CONSTRAINT IF EXISTS events_title_check;
 ALTER TABLE events DROP CONSTRAINT IF EXISTS events_annotation_check;
 ALTER TABLE events DROP CONSTRAINT IF EXISTS events_description_check;
@@ -37,10 +68,12 @@ COMMENT ON COLUMN events.annotation IS 'Краткое описание собы
 COMMENT ON COLUMN events.description IS 'Полное описание события';
 COMMENT ON COLUMN events.event_date IS 'Дата и время на которые намечено событие';
 COMMENT ON COLUMN events.category_id IS 'Идентификатор категории, к которой относится событие';
-COMMENT ON COLUMN events.location IS 'Широта и долгота места проведения события';
+COMMENT ON COLUMN events.lat IS 'Широта места проведения события';
+COMMENT ON COLUMN events.lon IS 'Долгота места проведения события';
 COMMENT ON COLUMN events.published_on IS 'Дата и время публикации события';
 COMMENT ON COLUMN events.paid IS 'Признак, нужно ли оплачивать событие';
 COMMENT ON COLUMN events.participant_limit IS 'Ограничение на количество участников';
 COMMENT ON COLUMN events.request_moderation IS 'Признак, нужна ли пре-модерация заявок на участие';
 COMMENT ON COLUMN events.confirmed_requests IS 'Количество одобренных заявок на участие в данном событии';
 COMMENT ON COLUMN events.state IS 'Состояние события';
+COMMENT ON COLUMN events.views IS 'Количество просмотров события, синхронизируется с сервером статистики';
@@ -0,0 +1,168 @@
+package ru.practicum.eventservice.service;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.eventservice.model.EventSearch;
+import ru.practicum.eventservice.service.category.CategoryCatalogReplica;
+import ru.practicum.eventservice.service.mapper.EventMapper;
+import ru.practicum.eventservice.service.views.EventViewsCache;
+import ru.practicum.interactionapi.dto.eventservice.EventSort;
+import ru.practicum.interactionapi.dto.eventservice.EventState;
+import ru.practicum.interactionapi.openfeign.UserServiceClient;
+import ru.practicum.interactionapi.pageable.SeekCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка планов запросов поиска событий: ни одна форма публичного или административного поиска
+ * не должна сводиться к последовательному просмотру таблицы событий.
+ * <p>
+ * Перехватываются SQL-запросы, которые Hibernate строит для поиска, и для каждого из них строится общий
+ * (generic) план, как для подготовленного запроса с параметрами, при запрещенном последовательном просмотре.
+ * Если подходящего индекса нет, планировщик все равно выбирает последовательный просмотр.
+ */
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest
+@Import({EventServiceImpl.class, EventSearchPlanTest.StatementCaptureConfiguration.class})
+@Testcontainers
+class EventSearchPlanTest {
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1");
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private EventMapper eventMapper;
+
+    @MockBean
+    private CategoryCatalogReplica categoryCatalogReplica;
+
+    @MockBean
+    private EventViewsCache eventViewsCache;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @BeforeEach
+    void clearStatements() {
+        STATEMENTS.clear();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("publicSearches")
+    void publicSearchDoesNotScanEvents(String name, EventSearch search) throws Exception {
+        eventService.getPublishedEvents(search);
+        assertNoSequentialScan();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("adminSearches")
+    void adminSearchDoesNotScanEvents(String name, EventSearch search) throws Exception {
+        eventService.getEvents(search);
+        assertNoSequentialScan();
+    }
+
+    static Stream<Arguments> publicSearches() {
+        return Stream.of(
+                Arguments.of("default", page().build()),
+                Arguments.of("event date", page().sort(EventSort.EVENT_DATE).rangeStart(NOW).build()),
+                Arguments.of("event date after", page().sort(EventSort.EVENT_DATE).rangeStart(NOW)
+                        .after(SeekCursor.of(NOW, 1L).encode()).build()),
+                Arguments.of("views", page().sort(EventSort.VIEWS).build()),
+                Arguments.of("views after", page().sort(EventSort.VIEWS).after(SeekCursor.of(10L, 1L).encode()).build()),
+                Arguments.of("paid", page().paid(true).sort(EventSort.EVENT_DATE).rangeStart(NOW).build()),
+                Arguments.of("categories", page().categories(List.of(1L, 2L)).rangeStart(NOW).build()),
+                Arguments.of("only available", page().onlyAvailable(true).sort(EventSort.EVENT_DATE).build()),
+                Arguments.of("text", page().text("концерт").build()),
+                Arguments.of("location", page().lat(55.75).lon(37.62).radius(10.0).build())
+        );
+    }
+
+    static Stream<Arguments> adminSearches() {
+        return Stream.of(
+                Arguments.of("default", page().build()),
+                Arguments.of("users", page().users(List.of(1L, 2L)).build()),
+                Arguments.of("states", page().states(List.of(EventState.PENDING)).sort(EventSort.EVENT_DATE)
+                        .rangeStart(NOW).build()),
+                Arguments.of("categories", page().categories(List.of(1L, 2L)).rangeStart(NOW).rangeEnd(NOW.plusDays(7)).build()),
+                Arguments.of("range", page().rangeStart(NOW).rangeEnd(NOW.plusDays(7)).build()),
+                Arguments.of("after", page().after(SeekCursor.of(1L).encode()).build()),
+                Arguments.of("text", page().text("концерт").build())
+        );
+    }
+
+    private static EventSearch.EventSearchBuilder page() {
+        return EventSearch.builder().from(0).size(10);
+    }
+
+    private void assertNoSequentialScan() {
+        assertThat(STATEMENTS).isNotEmpty();
+
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        for (String statement : STATEMENTS) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numberParameters(statement), String.class));
+            assertThat(plan).as(statement).doesNotContain("Seq Scan");
+        }
+    }
+
+    /**
+     * Заменить JDBC-параметры {@code ?} нумерованными параметрами PostgreSQL {@code $n}.
+     */
+    private static String numberParameters(String statement) {
+        StringBuilder result = new StringBuilder(statement.length() + 16);
+        int parameter = 0;
+        for (char c : statement.toCharArray()) {
+            if (c == '?') {
+                result.append('$').append(++parameter);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+        @Bean
+        HibernatePropertiesCustomizer statementCapture() {
+            StatementInspector inspector = sql -> {
+                if (sql.stripLeading().toLowerCase().startsWith("select")) {
+                    STATEMENTS.add(sql);
+                }
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+}
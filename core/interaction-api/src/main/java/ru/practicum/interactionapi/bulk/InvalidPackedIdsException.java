@@ -0,0 +1,15 @@
+package ru.practicum.interactionapi.bulk;
+
+/**
+ * Исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+ */
+public class InvalidPackedIdsException extends RuntimeException {
+    /**
+     * Конструктор.
+     *
+     * @param reason описание повреждения.
+     */
+    public InvalidPackedIdsException(String reason) {
+        super("Некорректные упакованные идентификаторы: " + reason);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.interactionapi.bulk;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Компактное двоичное представление набора идентификаторов для пакетных запросов между сервисами.
+ * <p>
+ * Идентификаторы упорядочиваются по возрастанию без повторов и записываются как количество и разности соседних
+ * значений в формате varint (7 бит на байт); первое значение записывается в zig-zag-кодировке. Для плотных
+ * диапазонов идентификаторов на одно значение приходится 1-2 байта вместо 20 байт в строке запроса.
+ */
+public final class PackedIds {
+    /**
+     * Количество идентификаторов, начиная с которого клиенты передают их телом POST-запроса, а не в строке запроса.
+     */
+    public static final int BULK_LOOKUP_THRESHOLD = 64;
+
+    private PackedIds() {
+    }
+
+    /**
+     * Упаковать идентификаторы.
+     *
+     * @param ids идентификаторы.
+     * @return упакованные идентификаторы.
+     */
+    public static byte[] pack(Collection<Long> ids) {
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(5 + sorted.length * 2);
+        writeVarLong(out, sorted.length);
+        long previous = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            writeVarLong(out, i == 0 ? (sorted[0] << 1) ^ (sorted[0] >> 63) : sorted[i] - previous);
+            previous = sorted[i];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Распаковать идентификаторы.
+     *
+     * @param packed упакованные идентификаторы.
+     * @return идентификаторы в порядке возрастания.
+     * @throws InvalidPackedIdsException данные повреждены.
+     */
+    public static List<Long> unpack(byte[] packed) throws InvalidPackedIdsException {
+        Reader reader = new Reader(packed);
+
+        long count = reader.readVarLong();
+        if (count < 0 || count > packed.length) {
+            throw new InvalidPackedIdsException("некорректное количество идентификаторов " + count);
+        }
+
+        List<Long> ids = new ArrayList<>((int) count);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long value = reader.readVarLong();
+            previous = i == 0 ? (value >>> 1) ^ -(value & 1) : previous + value;
+            ids.add(previous);
+        }
+
+        if (reader.position != packed.length) {
+            throw new InvalidPackedIdsException("лишние данные после идентификаторов");
+        }
+        return ids;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new InvalidPackedIdsException("неожиданный конец данных");
+                }
+
+                byte current = data[position++];
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new InvalidPackedIdsException("слишком длинное значение varint");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.interactionapi.configuration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
+import ru.practicum.interactionapi.dto.userservice.UserDto;
+import ru.practicum.interactionapi.loader.BatchLoader;
+import ru.practicum.interactionapi.loader.CoalescingCategoryServiceClient;
+import ru.practicum.interactionapi.loader.CoalescingUserServiceClient;
+import ru.practicum.interactionapi.openfeign.CategoryServiceClient;
+import ru.practicum.interactionapi.openfeign.UserServiceClient;
+
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Подключает объединение одновременных запросов к клиентам сервисов пользователей и категорий.
+ * Объединяющие клиенты регистрируются основными ({@link Primary}), поэтому внедряются вместо Feign-клиентов
+ * без изменения кода сервисов. Отключается свойством {@code interaction-api.loader.enabled=false}.
+ * Вызывающий поток ожидает результат не дольше таймаута чтения Feign-клиентов с учётом окна накопления пакета.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "interaction-api.loader.enabled", havingValue = "true", matchIfMissing = true)
+public class BatchLoaderAutoConfiguration {
+    /**
+     * Таймаут (в миллисекундах) чтения ответа Feign-клиентами; по умолчанию - значение Feign.
+     */
+    private static final String FEIGN_READ_TIMEOUT = "${spring.cloud.openfeign.client.config.default.read-timeout:60000}";
+
+    @Bean
+    @ConditionalOnBean(name = "userServiceFeignClient")
+    public BatchLoader<Long, UserDto> userLoader(@Qualifier("userServiceFeignClient") UserServiceClient userServiceClient,
+                                                 @Value("${interaction-api.loader.window-ms:2}") long windowMillis,
+                                                 @Value("${interaction-api.loader.max-batch-size:100}") int maxBatchSize,
+                                                 @Value(FEIGN_READ_TIMEOUT) long readTimeoutMillis) {
+        return new BatchLoader<>("user",
+                userIds -> userServiceClient.getUsers(userIds).stream().collect(Collectors.toMap(UserDto::getId, Function.identity())),
+                windowMillis,
+                maxBatchSize,
+                windowMillis + readTimeoutMillis);
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "userServiceFeignClient")
+    @Primary
+    public UserServiceClient coalescingUserServiceClient(@Qualifier("userServiceFeignClient") UserServiceClient userServiceClient,
+                                                         BatchLoader<Long, UserDto> userLoader) {
+        return new CoalescingUserServiceClient(userServiceClient, userLoader);
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "categoryServiceFeignClient")
+    public BatchLoader<Long, CategoryDto> categoryLoader(@Qualifier("categoryServiceFeignClient") CategoryServiceClient categoryServiceClient,
+                                                         @Value("${interaction-api.loader.window-ms:2}") long windowMillis,
+                                                         @Value("${interaction-api.loader.max-batch-size:100}") int maxBatchSize,
+                                                         @Value(FEIGN_READ_TIMEOUT) long readTimeoutMillis) {
+        return new BatchLoader<>("category",
+                categoriesIds -> categoryServiceClient.getCategories(categoriesIds).stream().collect(Collectors.toMap(CategoryDto::getId, Function.identity())),
+                windowMillis,
+                maxBatchSize,
+                windowMillis + readTimeoutMillis);
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "categoryServiceFeignClient")
+    @Primary
+    public CategoryServiceClient coalescingCategoryServiceClient(@Qualifier("categoryServiceFeignClient") CategoryServiceClient categoryServiceClient,
+                                                                 BatchLoader<Long, CategoryDto> categoryLoader) {
+        return new CoalescingCategoryServiceClient(categoryServiceClient, categoryLoader);
+    }
+}
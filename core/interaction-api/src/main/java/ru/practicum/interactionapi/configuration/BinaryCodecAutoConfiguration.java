@@ -0,0 +1,26 @@
+package ru.practicum.interactionapi.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Регистрирует преобразователь сообщений CBOR, построенный на тех же настройках Jackson, что и JSON.
+ * Сервер отвечает в CBOR только клиентам, которые указали этот формат в заголовке {@code Accept};
+ * межсервисные клиенты делают это для конечных точек {@code /interaction/**}, остальные клиенты получают JSON.
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class, before = HttpMessageConvertersAutoConfiguration.class)
+@ConditionalOnClass(CBORFactory.class)
+public class BinaryCodecAutoConfiguration {
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.interactionapi.dto.categoryservice;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+
+/**
+ * Трансферный объект, содержащий снимок справочника категорий.
+ */
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Data
+@NoArgsConstructor
+public class CategoryCatalogDto {
+    /**
+     * Версия справочника. Меняется при каждом изменении категорий.
+     */
+    private long version;
+
+    /**
+     * Все категории в порядке возрастания идентификатора; {@code null}, если справочник не изменился
+     * с версии, указанной в запросе.
+     */
+    private Collection<CategoryDto> categories;
+}
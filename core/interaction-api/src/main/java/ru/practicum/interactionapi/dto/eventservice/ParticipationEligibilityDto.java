@@ -0,0 +1,52 @@
+package ru.practicum.interactionapi.dto.eventservice;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Трансферный объект, содержащий сведения о событии, необходимые для создания заявки на участие,
+ * и результат попытки занять место участника.
+ */
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Data
+@NoArgsConstructor
+public class ParticipationEligibilityDto {
+    /**
+     * Уникальный идентификатор события.
+     */
+    private Long eventId;
+
+    /**
+     * Признак, опубликовано ли событие.
+     */
+    private boolean published;
+
+    /**
+     * Идентификатор инициатора события.
+     */
+    private Long initiatorId;
+
+    /**
+     * Ограничение на количество участников.
+     * 0 - означает отсутствие ограничения.
+     */
+    private int participantLimit;
+
+    /**
+     * Количество одобренных заявок на участие в событии с учётом занятого места.
+     */
+    private int confirmedRequests;
+
+    /**
+     * Признак, нужна ли пре-модерация заявок на участие.
+     */
+    private boolean requestModeration;
+
+    /**
+     * Признак, что место участника занято: заявка подтверждается без модерации.
+     */
+    private boolean reserved;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.interactionapi.exception.categoryservice;
+
+/**
+ * Исключение, выбрасываемое сервисом, если сервис управления категориями не ответил или ответил ошибкой.
+ */
+public class CategoryServiceUnavailableException extends RuntimeException {
+    /**
+     * Конструктор.
+     *
+     * @param cause причина недоступности сервиса.
+     */
+    public CategoryServiceUnavailableException(Throwable cause) {
+        super("Сервис управления категориями недоступен", cause);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.interactionapi.exception.userservice;
+
+/**
+ * Исключение, выбрасываемое сервисом, если сервис управления пользователями не ответил или ответил ошибкой.
+ */
+public class UserServiceUnavailableException extends RuntimeException {
+    /**
+     * Конструктор.
+     *
+     * @param cause причина недоступности сервиса.
+     */
+    public UserServiceUnavailableException(Throwable cause) {
+        super("Сервис управления пользователями недоступен", cause);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.interactionapi.loader;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Исключение, выбрасываемое загрузчиком, если пакетный вызов не завершился за отведённое время.
+ */
+public class BatchLoadTimeoutException extends RuntimeException {
+    /**
+     * Конструктор.
+     *
+     * @param key           ключ, запись которого не удалось загрузить.
+     * @param timeoutMillis время ожидания (в миллисекундах).
+     * @param cause         исходное исключение.
+     */
+    public BatchLoadTimeoutException(Object key, long timeoutMillis, TimeoutException cause) {
+        super(String.format("Запись с ключом %s не загружена за %d мс", key, timeoutMillis), cause);
+    }
+}
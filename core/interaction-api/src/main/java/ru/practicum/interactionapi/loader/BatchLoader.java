@@ -0,0 +1,188 @@
+package ru.practicum.interactionapi.loader;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Загрузчик записей по ключам, объединяющий одновременные запросы (в духе DataLoader).
+ * <p>
+ * Одновременные запросы одного и того же ключа разделяют один вызов (single-flight). Запросы разных ключей,
+ * поступившие в течение {@link #windowMillis} после первого из них, объединяются в один пакетный вызов;
+ * пакет отправляется досрочно, если набралось {@link #maxBatchSize} ключей. Результаты не кэшируются:
+ * после завершения вызова следующий запрос того же ключа выполняется заново.
+ * <p>
+ * Каждый вызывающий поток ожидает результат не дольше {@link #timeoutMillis}: если пакетный вызов завис,
+ * ожидание завершается {@link BatchLoadTimeoutException}, а ключ освобождается для новых запросов.
+ * <p>
+ * Ключи, отсутствующие в ответе пакетного вызова, считаются несуществующими.
+ *
+ * @param <K> тип ключа.
+ * @param <V> тип записи.
+ */
+@Slf4j
+public class BatchLoader<K, V> implements AutoCloseable {
+    /**
+     * Пакетная загрузка записей по ключам.
+     */
+    private final Function<Collection<K>, Map<K, V>> batchLoad;
+
+    /**
+     * Время (в миллисекундах) накопления ключей в пакет.
+     */
+    private final long windowMillis;
+
+    /**
+     * Максимальное количество ключей в пакете.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Время (в миллисекундах) ожидания результата вызывающим потоком.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Выполняющиеся и ожидающие отправки запросы по ключам.
+     */
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ключи, ожидающие отправки.
+     */
+    private List<K> pending = new ArrayList<>();
+
+    /**
+     * Планировщик отправки пакетов по истечении {@link #windowMillis}.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Исполнитель пакетных вызовов: каждый пакет выполняется в отдельном виртуальном потоке.
+     */
+    private final ExecutorService dispatcher;
+
+    public BatchLoader(String name,
+                       Function<Collection<K>, Map<K, V>> batchLoad,
+                       long windowMillis,
+                       int maxBatchSize,
+                       long timeoutMillis) {
+        this.batchLoad = batchLoad;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-loader-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-loader-", 0).factory());
+    }
+
+    /**
+     * Загрузить запись по ключу, присоединившись к уже выполняющемуся запросу этого ключа или к очередному пакету.
+     *
+     * @param key ключ.
+     * @return запись; пустой результат, если записи с таким ключом нет.
+     * @throws BatchLoadTimeoutException пакетный вызов не завершился за {@link #timeoutMillis}.
+     */
+    public Optional<V> load(K key) throws BatchLoadTimeoutException {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = inFlight.putIfAbsent(key, created);
+        if (future == null) {
+            future = created;
+            enqueue(key);
+        }
+
+        try {
+            return Optional.ofNullable(future.copy().orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).join());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException timeout) {
+                inFlight.remove(key, future);
+                throw new BatchLoadTimeoutException(key, timeoutMillis, timeout);
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Поставить ключ в очередной пакет.
+     */
+    private void enqueue(K key) {
+        boolean full;
+        synchronized (this) {
+            pending.add(key);
+            if (pending.size() == 1) {
+                scheduler.schedule(this::dispatch, windowMillis, TimeUnit.MILLISECONDS);
+            }
+            full = pending.size() >= maxBatchSize;
+        }
+
+        if (full) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Отправить накопленные ключи одним пакетом.
+     */
+    private void dispatch() {
+        List<K> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        dispatcher.execute(() -> execute(batch));
+    }
+
+    /**
+     * Выполнить пакетный вызов и завершить ожидающие запросы.
+     */
+    private void execute(List<K> batch) {
+        Map<K, V> values;
+        try {
+            values = batchLoad.apply(batch);
+        } catch (RuntimeException ex) {
+            log.warn("Не удалось загрузить пакет из {} записей: {}", batch.size(), ex.getMessage());
+            batch.forEach(key -> complete(key, null, ex));
+            return;
+        }
+
+        batch.forEach(key -> complete(key, values.get(key), null));
+    }
+
+    /**
+     * Завершить запрос ключа и убрать его из выполняющихся.
+     */
+    private void complete(K key, V value, Throwable error) {
+        CompletableFuture<V> future = inFlight.remove(key);
+        if (future == null) {
+            return;
+        }
+
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.interactionapi.loader;
+
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
+import ru.practicum.interactionapi.openfeign.CategoryServiceClient;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Клиент сервиса для работы с категориями, объединяющий одновременные запросы отдельных категорий
+ * в пакетные запросы {@link CategoryServiceClient#getCategories(Collection)}. Остальные запросы передаются клиенту как есть.
+ */
+public class CoalescingCategoryServiceClient implements CategoryServiceClient {
+    private final CategoryServiceClient categoryServiceClient;
+    private final BatchLoader<Long, CategoryDto> categoryLoader;
+
+    public CoalescingCategoryServiceClient(CategoryServiceClient categoryServiceClient, BatchLoader<Long, CategoryDto> categoryLoader) {
+        this.categoryServiceClient = categoryServiceClient;
+        this.categoryLoader = categoryLoader;
+    }
+
+    @Override
+    public Collection<CategoryDto> getCategoriesByIds(Collection<Long> categoriesIds) {
+        return categoryServiceClient.getCategoriesByIds(categoriesIds);
+    }
+
+    @Override
+    public Collection<CategoryDto> lookupCategories(byte[] packedCategoryIds) {
+        return categoryServiceClient.lookupCategories(packedCategoryIds);
+    }
+
+    @Override
+    public Optional<CategoryDto> getCategory(Long categoryId) {
+        return categoryLoader.load(categoryId);
+    }
+
+    @Override
+    public CategoryCatalogDto getCategoryCatalog(Long sinceVersion) {
+        return categoryServiceClient.getCategoryCatalog(sinceVersion);
+    }
+
+    @Override
+    public boolean isCategoryExists(Long categoryId) {
+        return categoryServiceClient.isCategoryExists(categoryId);
+    }
+}
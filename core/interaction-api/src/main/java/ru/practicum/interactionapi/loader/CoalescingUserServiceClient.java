@@ -0,0 +1,41 @@
+package ru.practicum.interactionapi.loader;
+
+import ru.practicum.interactionapi.dto.userservice.UserDto;
+import ru.practicum.interactionapi.openfeign.UserServiceClient;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Клиент сервиса для работы с пользователями, объединяющий одновременные запросы отдельных пользователей
+ * в пакетные запросы {@link UserServiceClient#getUsers(Collection)}. Остальные запросы передаются клиенту как есть.
+ */
+public class CoalescingUserServiceClient implements UserServiceClient {
+    private final UserServiceClient userServiceClient;
+    private final BatchLoader<Long, UserDto> userLoader;
+
+    public CoalescingUserServiceClient(UserServiceClient userServiceClient, BatchLoader<Long, UserDto> userLoader) {
+        this.userServiceClient = userServiceClient;
+        this.userLoader = userLoader;
+    }
+
+    @Override
+    public Collection<UserDto> getUsersByIds(Collection<Long> userIds) {
+        return userServiceClient.getUsersByIds(userIds);
+    }
+
+    @Override
+    public Collection<UserDto> lookupUsers(byte[] packedUserIds) {
+        return userServiceClient.lookupUsers(packedUserIds);
+    }
+
+    @Override
+    public Optional<UserDto> getUser(Long userId) {
+        return userLoader.load(userId);
+    }
+
+    @Override
+    public boolean isUserExists(Long userId) {
+        return userServiceClient.isUserExists(userId);
+    }
+}
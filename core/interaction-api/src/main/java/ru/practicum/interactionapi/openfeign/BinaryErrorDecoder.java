@@ -0,0 +1,67 @@
+package ru.practicum.interactionapi.openfeign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import feign.Response;
+import feign.Util;
+import feign.codec.ErrorDecoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Декодер ошибок межсервисных клиентов, понимающий тела ошибок в формате CBOR.
+ * <p>
+ * Клиенты запрашивают ответы конечных точек {@code /interaction/**} в CBOR, поэтому сервер сериализует в CBOR
+ * и тела ошибок. Перед передачей декодеру по умолчанию такое тело преобразуется в JSON, чтобы сообщения
+ * исключений Feign и журналы содержали читаемый текст, а не двоичные данные.
+ */
+public class BinaryErrorDecoder implements ErrorDecoder {
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final ErrorDecoder errorDecoder;
+
+    public BinaryErrorDecoder(ErrorDecoder errorDecoder) {
+        this.errorDecoder = errorDecoder;
+    }
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        return errorDecoder.decode(methodKey, isCbor(response) ? toJson(response) : response);
+    }
+
+    private static boolean isCbor(Response response) {
+        Collection<String> contentTypes = response.headers().getOrDefault(HttpHeaders.CONTENT_TYPE, List.of());
+        return response.body() != null && contentTypes.stream()
+                .anyMatch(contentType -> MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_CBOR));
+    }
+
+    /**
+     * Преобразовать тело ответа из CBOR в JSON. Если тело повреждено, оно передаётся без изменений.
+     */
+    private static Response toJson(Response response) {
+        byte[] body;
+        try (InputStream in = response.body().asInputStream()) {
+            body = Util.toByteArray(in);
+        } catch (IOException ex) {
+            return response;
+        }
+
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(response.headers());
+        try {
+            body = JSON_MAPPER.writeValueAsBytes(CBOR_MAPPER.readTree(body));
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(MediaType.APPLICATION_JSON_VALUE));
+        } catch (IOException ex) {
+            // Тело передаётся как есть: декодер по умолчанию всё равно сохранит статус и заголовки ответа
+        }
+        return response.toBuilder().headers(headers).body(body).build();
+    }
+}
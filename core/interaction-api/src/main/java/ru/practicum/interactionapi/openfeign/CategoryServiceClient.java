@@ -1,35 +1,71 @@
 package ru.practicum.interactionapi.openfeign;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.interactionapi.bulk.PackedIds;
+import ru.practicum.interactionapi.dto.categoryservice.CategoryCatalogDto;
 import ru.practicum.interactionapi.dto.categoryservice.CategoryDto;
 
 import java.util.Collection;
+import java.util.Optional;
 
 /**
  * Контракт клиента сервиса для работы с категориями событий.
  */
-@FeignClient(name = "category-service")
+@FeignClient(name = "category-service", qualifiers = "categoryServiceFeignClient", primary = false,
+        dismiss404 = true, configuration = InteractionClientConfiguration.class)
 public interface CategoryServiceClient {
     /**
-     * Получить коллекцию категорий.
+     * Получить коллекцию категорий в порядке возрастания идентификаторов. Если идентификаторов не меньше
+     * {@value PackedIds#BULK_LOOKUP_THRESHOLD}, они передаются в упакованном виде телом POST-запроса.
+     *
+     * @param categoriesIds идентификаторы категорий.
+     * @return коллекция категорий.
+     */
+    default Collection<CategoryDto> getCategories(Collection<Long> categoriesIds) {
+        return categoriesIds.size() < PackedIds.BULK_LOOKUP_THRESHOLD ? getCategoriesByIds(categoriesIds) : lookupCategories(PackedIds.pack(categoriesIds));
+    }
+
+    /**
+     * Получить коллекцию категорий, передав идентификаторы в строке запроса.
      *
      * @param categoriesIds идентификаторы категорий.
      * @return коллекция категорий.
      */
     @GetMapping("/interaction/categories")
-    Collection<CategoryDto> getCategories(@RequestParam(name = "ids") Collection<Long> categoriesIds);
+    Collection<CategoryDto> getCategoriesByIds(@RequestParam(name = "ids") Collection<Long> categoriesIds);
+
+    /**
+     * Получить коллекцию категорий, передав идентификаторы телом запроса.
+     *
+     * @param packedCategoryIds идентификаторы категорий, упакованные {@link PackedIds#pack(Collection)}.
+     * @return коллекция категорий в порядке возрастания идентификаторов.
+     */
+    @PostMapping(value = "/interaction/categories/lookup", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    Collection<CategoryDto> lookupCategories(@RequestBody byte[] packedCategoryIds);
 
     /**
      * Получить категорию.
      *
      * @param categoryId идентификатор категории.
-     * @return трансферный объект, содержащий данные о категории.
+     * @return трансферный объект, содержащий данные о категории; пустой результат, если категория не найдена.
      */
     @GetMapping("/interaction/categories/{categoryId}")
-    CategoryDto getCategory(@PathVariable Long categoryId);
+    Optional<CategoryDto> getCategory(@PathVariable Long categoryId);
+
+    /**
+     * Получить снимок справочника категорий.
+     *
+     * @param sinceVersion версия справочника, имеющаяся у вызывающей стороны.
+     * @return снимок справочника; категории не передаются, если версия не изменилась.
+     */
+    @GetMapping("/interaction/categories/snapshot")
+    CategoryCatalogDto getCategoryCatalog(@RequestParam(name = "sinceVersion", required = false) Long sinceVersion);
 
     /**
      * Проверить существует ли категория.
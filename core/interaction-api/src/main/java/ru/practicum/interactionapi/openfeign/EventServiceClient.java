@@ -1,37 +1,63 @@
 package ru.practicum.interactionapi.openfeign;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.interactionapi.bulk.PackedIds;
 import ru.practicum.interactionapi.dto.eventservice.EventDto;
 import ru.practicum.interactionapi.dto.eventservice.EventShortDto;
+import ru.practicum.interactionapi.dto.eventservice.ParticipationEligibilityDto;
 
 import java.util.Collection;
+import java.util.Optional;
 
 /**
  * Контракт клиента сервиса для работы с событиями.
  */
-@FeignClient(value = "event-service")
+@FeignClient(value = "event-service", dismiss404 = true, configuration = InteractionClientConfiguration.class)
 public interface EventServiceClient {
     /**
-     * Получить коллекцию событий.
+     * Получить коллекцию событий в порядке возрастания идентификаторов. Если идентификаторов не меньше
+     * {@value PackedIds#BULK_LOOKUP_THRESHOLD}, они передаются в упакованном виде телом POST-запроса.
      *
      * @param eventIds идентификаторы событий.
-     * @return трансферный объект, содержащий данные о событии.
+     * @return коллекция событий.
+     */
+    default Collection<EventShortDto> getEvents(Collection<Long> eventIds) {
+        return eventIds.size() < PackedIds.BULK_LOOKUP_THRESHOLD ? getEventsByIds(eventIds) : lookupEvents(PackedIds.pack(eventIds));
+    }
+
+    /**
+     * Получить коллекцию событий, передав идентификаторы в строке запроса.
+     *
+     * @param eventIds идентификаторы событий.
+     * @return коллекция событий.
      */
     @GetMapping("/interaction/events")
-    Collection<EventShortDto> getEvents(@RequestParam(name = "ids") Collection<Long> eventIds);
+    Collection<EventShortDto> getEventsByIds(@RequestParam(name = "ids") Collection<Long> eventIds);
+
+    /**
+     * Получить коллекцию событий, передав идентификаторы телом запроса.
+     *
+     * @param packedEventIds идентификаторы событий, упакованные {@link PackedIds#pack(Collection)}.
+     * @return коллекция событий в порядке возрастания идентификаторов.
+     */
+    @PostMapping(value = "/interaction/events/lookup", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    Collection<EventShortDto> lookupEvents(@RequestBody byte[] packedEventIds);
 
     /**
      * Получить событие.
      *
      * @param eventId идентификатор события.
-     * @return трансферный объект, содержащий данные о событии.
+     * @return трансферный объект, содержащий данные о событии; пустой результат, если событие не найдено или не опубликовано.
      */
     @GetMapping("/interaction/events/{eventId}")
-    EventDto getEvent(@PathVariable Long eventId);
+    Optional<EventDto> getEvent(@PathVariable Long eventId);
 
     /**
      * Проверить существует ли событие.
@@ -62,17 +88,33 @@ public interface EventServiceClient {
 
     /**
      * Подтвердить участие в событии.
+     * Подтверждается не больше участников, чем осталось мест до ограничения на количество участников.
      *
      * @param eventId идентификатор события.
+     * @param count   количество участников, участие которых нужно подтвердить.
+     * @return количество подтверждённых участников.
      */
     @PatchMapping("/interaction/events/{eventId}/participation/confirm")
-    void confirmParticipation(@PathVariable Long eventId);
+    int confirmParticipation(@PathVariable Long eventId, @RequestParam(name = "count") int count);
+
+    /**
+     * Получить сведения о событии для создания заявки на участие и, если заявка подтверждается без модерации,
+     * атомарно занять место участника.
+     *
+     * @param eventId     идентификатор события.
+     * @param requesterId идентификатор пользователя, создающего заявку.
+     * @return сведения о событии и признак, занято ли место; пустой результат, если событие не найдено.
+     */
+    @PostMapping("/interaction/events/{eventId}/participation/reserve")
+    Optional<ParticipationEligibilityDto> reserveParticipation(@PathVariable Long eventId, @RequestParam(name = "requesterId") Long requesterId);
 
     /**
      * Отменить участие в событии.
      *
      * @param eventId идентификатор события.
+     * @param count   количество участников, участие которых нужно отменить.
+     * @return количество участников, участие которых отменено.
      */
     @PatchMapping("/interaction/events/{eventId}/participation/reject")
-    void rejectParticipation(@PathVariable Long eventId);
+    int rejectParticipation(@PathVariable Long eventId, @RequestParam(name = "count") int count);
 }
@@ -0,0 +1,62 @@
+package ru.practicum.interactionapi.openfeign;
+
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Конфигурация межсервисных Feign-клиентов: ответ 404 на методы, возвращающие {@link java.util.Optional},
+ * декодируется в пустой результат, что позволяет не проверять существование записи отдельным запросом.
+ * <p>
+ * Для конечных точек {@value #INTERACTION_PATH_PREFIX}** клиенты запрашивают ответ в двоичном формате CBOR,
+ * а JSON указывают запасным вариантом; формат выбирается сервером по заголовку {@code Accept}. Тела ошибок
+ * в CBOR преобразуются в JSON декодером {@link BinaryErrorDecoder}.
+ * Отключается свойством {@code interaction-api.codec.binary=false}.
+ * <p>
+ * Класс не помечен {@code @Configuration}, чтобы не попасть в общий контекст приложения; он подключается
+ * через атрибут {@code configuration} аннотации {@code @FeignClient}.
+ */
+public class InteractionClientConfiguration {
+    /**
+     * Префикс адресов конечных точек межсервисного взаимодействия.
+     */
+    public static final String INTERACTION_PATH_PREFIX = "/interaction/";
+
+    /**
+     * Значение заголовка {@code Accept}: CBOR, а при его отсутствии на сервере - JSON.
+     */
+    private static final String BINARY_ACCEPT = "application/cbor, application/json;q=0.9";
+
+    @Bean
+    public Decoder feignDecoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                ObjectProvider<HttpMessageConverterCustomizer> customizers,
+                                ErrorDecoder feignErrorDecoder) {
+        return new NotFoundAsEmptyDecoder(
+                new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(messageConverters, customizers))),
+                feignErrorDecoder);
+    }
+
+    @Bean
+    public ErrorDecoder feignErrorDecoder() {
+        return new BinaryErrorDecoder(new ErrorDecoder.Default());
+    }
+
+    @Bean
+    public RequestInterceptor binaryCodecRequestInterceptor(@Value("${interaction-api.codec.binary:true}") boolean binary) {
+        return template -> {
+            if (binary && template.path().startsWith(INTERACTION_PATH_PREFIX) && !template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, BINARY_ACCEPT);
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.interactionapi.openfeign;
+
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+/**
+ * Декодер ответов межсервисных клиентов, превращающий ответ 404 в пустой результат.
+ * <p>
+ * Используется вместе с {@code dismiss404}: для методов, возвращающих {@link Optional}, ответ 404 декодируется
+ * в {@link Optional#empty()}; для остальных методов ответ 404 передаётся декодеру ошибок, и вызывающая сторона
+ * получает то же исключение, что и без {@code dismiss404}.
+ */
+public class NotFoundAsEmptyDecoder implements Decoder {
+    private static final int NOT_FOUND = 404;
+
+    private final Decoder decoder;
+    private final ErrorDecoder errorDecoder;
+
+    public NotFoundAsEmptyDecoder(Decoder decoder, ErrorDecoder errorDecoder) {
+        this.decoder = decoder;
+        this.errorDecoder = errorDecoder;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.status() != NOT_FOUND) {
+            return decoder.decode(response, type);
+        }
+
+        if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == Optional.class) {
+            return Optional.empty();
+        }
+
+        String methodKey = response.request().requestTemplate().methodMetadata().configKey();
+        Exception exception = errorDecoder.decode(methodKey, response);
+        if (exception instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new IOException(exception);
+    }
+}
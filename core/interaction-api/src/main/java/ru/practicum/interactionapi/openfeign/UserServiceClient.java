@@ -1,35 +1,61 @@
 package ru.practicum.interactionapi.openfeign;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.interactionapi.bulk.PackedIds;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
 
 import java.util.Collection;
+import java.util.Optional;
 
 /**
  * Контракт клиента сервиса для работы с пользователями.
  */
-@FeignClient(name = "user-service")
+@FeignClient(name = "user-service", qualifiers = "userServiceFeignClient", primary = false,
+        dismiss404 = true, configuration = InteractionClientConfiguration.class)
 public interface UserServiceClient {
     /**
-     * Получить коллекцию пользователей.
+     * Получить коллекцию пользователей в порядке возрастания идентификаторов. Если идентификаторов не меньше
+     * {@value PackedIds#BULK_LOOKUP_THRESHOLD}, они передаются в упакованном виде телом POST-запроса.
+     *
+     * @param userIds идентификаторы пользователей.
+     * @return коллекция пользователей.
+     */
+    default Collection<UserDto> getUsers(Collection<Long> userIds) {
+        return userIds.size() < PackedIds.BULK_LOOKUP_THRESHOLD ? getUsersByIds(userIds) : lookupUsers(PackedIds.pack(userIds));
+    }
+
+    /**
+     * Получить коллекцию пользователей, передав идентификаторы в строке запроса.
      *
      * @param userIds идентификаторы пользователей.
      * @return коллекция пользователей.
      */
     @GetMapping("/interaction/users")
-    Collection<UserDto> getUsers(@RequestParam(name = "ids") Collection<Long> userIds);
+    Collection<UserDto> getUsersByIds(@RequestParam(name = "ids") Collection<Long> userIds);
+
+    /**
+     * Получить коллекцию пользователей, передав идентификаторы телом запроса.
+     *
+     * @param packedUserIds идентификаторы пользователей, упакованные {@link PackedIds#pack(Collection)}.
+     * @return коллекция пользователей в порядке возрастания идентификаторов.
+     */
+    @PostMapping(value = "/interaction/users/lookup", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    Collection<UserDto> lookupUsers(@RequestBody byte[] packedUserIds);
 
     /**
      * Получить пользователя.
      *
      * @param userId идентификатор пользователя.
-     * @return пользователь.
+     * @return пользователь; пустой результат, если пользователь не найден.
      */
     @GetMapping("/interaction/users/{userId}")
-    UserDto getUser(@PathVariable Long userId);
+    Optional<UserDto> getUser(@PathVariable Long userId);
 
     /**
      * Проверить существует ли пользователь.
@@ -0,0 +1,15 @@
+package ru.practicum.interactionapi.pageable;
+
+/**
+ * Исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+ */
+public class InvalidCursorException extends RuntimeException {
+    /**
+     * Конструктор.
+     *
+     * @param cursor строковое представление позиции.
+     */
+    public InvalidCursorException(String cursor) {
+        super("Некорректная позиция постраничного просмотра: " + cursor);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.interactionapi.pageable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция постраничного просмотра по ключу (keyset/seek pagination): значение ключа сортировки
+ * и идентификатор последней записи предыдущей страницы.
+ * <p>
+ * Клиенту передаётся в виде непрозрачной строки, полученной {@link #encode()}.
+ */
+@EqualsAndHashCode
+@Getter
+@ToString
+public final class SeekCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Значение ключа сортировки последней записи; {@code null}, если записи упорядочены только по идентификатору.
+     */
+    private final String sortKey;
+
+    /**
+     * Идентификатор последней записи.
+     */
+    private final long id;
+
+    private SeekCursor(String sortKey, long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Создать позицию для записей, упорядоченных только по идентификатору.
+     *
+     * @param id идентификатор последней записи.
+     * @return позиция.
+     */
+    public static SeekCursor of(long id) {
+        return new SeekCursor(null, id);
+    }
+
+    /**
+     * Создать позицию для записей, упорядоченных по ключу сортировки и идентификатору.
+     *
+     * @param sortKey значение ключа сортировки последней записи.
+     * @param id      идентификатор последней записи.
+     * @return позиция.
+     */
+    public static SeekCursor of(Object sortKey, long id) {
+        return new SeekCursor(String.valueOf(sortKey), id);
+    }
+
+    /**
+     * Восстановить позицию из строки, полученной {@link #encode()}.
+     *
+     * @param cursor строковое представление позиции.
+     * @return позиция.
+     * @throws InvalidCursorException строка не является корректной позицией.
+     */
+    public static SeekCursor decode(String cursor) throws InvalidCursorException {
+        try {
+            String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                return of(Long.parseLong(decoded));
+            }
+            return new SeekCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Получить строковое представление позиции для передачи клиенту.
+     *
+     * @return строковое представление позиции.
+     */
+    public String encode() {
+        String value = sortKey == null ? Long.toString(id) : id + ":" + sortKey;
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
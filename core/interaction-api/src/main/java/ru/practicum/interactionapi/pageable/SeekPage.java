@@ -0,0 +1,78 @@
+package ru.practicum.interactionapi.pageable;
+
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница записей с позицией следующей страницы.
+ *
+ * @param <T> тип записей.
+ */
+@Getter
+public class SeekPage<T> {
+    /**
+     * Заголовок ответа, в котором передаётся позиция следующей страницы.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Записи страницы.
+     */
+    private final Collection<T> content;
+
+    /**
+     * Строковое представление позиции следующей страницы; {@code null}, если следующей страницы нет.
+     */
+    private final String next;
+
+    private SeekPage(Collection<T> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    /**
+     * Создать страницу.
+     *
+     * @param content записи страницы.
+     * @param next    позиция следующей страницы; {@code null}, если следующей страницы нет.
+     * @return страница.
+     */
+    public static <T> SeekPage<T> of(Collection<T> content, @Nullable SeekCursor next) {
+        return new SeekPage<>(content, next != null ? next.encode() : null);
+    }
+
+    /**
+     * Получить позицию следующей страницы по записям текущей.
+     * Если записей меньше размера страницы, следующей страницы нет.
+     *
+     * @param records  записи текущей страницы в порядке сортировки.
+     * @param pageSize размер страницы.
+     * @param cursor   функция, строящая позицию по записи.
+     * @return позиция следующей страницы или {@code null}.
+     */
+    @Nullable
+    public static <E> SeekCursor nextCursor(List<E> records, int pageSize, Function<E, SeekCursor> cursor) {
+        if (records.isEmpty() || records.size() < pageSize) {
+            return null;
+        }
+        return cursor.apply(records.getLast());
+    }
+
+    /**
+     * Преобразовать страницу в ответ: записи передаются в теле, позиция следующей страницы - в заголовке {@value #NEXT_CURSOR_HEADER}.
+     *
+     * @return ответ.
+     */
+    public ResponseEntity<Collection<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (next != null) {
+            builder.header(NEXT_CURSOR_HEADER, next);
+        }
+        return builder.body(content);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.interactionapi.pageable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Параметры постраничного просмотра по ключу: вместо пропуска {@code offset} записей выбираются записи,
+ * следующие за позицией {@link #getAfter()} в порядке {@link #getSort()}. Условие отбора по позиции
+ * строит хранилище.
+ * <p>
+ * Не реализует {@link org.springframework.data.domain.Pageable}: позиция следующей страницы зависит
+ * от последней записи текущей и строится через {@link #withAfter(SeekCursor)}, а назад просмотр не выполняется.
+ */
+@EqualsAndHashCode
+@Getter
+@ToString
+public final class SeekRequest {
+    /**
+     * Позиция, после которой выбираются записи; {@code null} - с начала.
+     */
+    @Nullable
+    private final SeekCursor after;
+
+    /**
+     * Размер страницы.
+     */
+    private final int pageSize;
+
+    /**
+     * Порядок записей.
+     */
+    private final Sort sort;
+
+    private SeekRequest(@Nullable SeekCursor after, int pageSize, Sort sort) {
+        Assert.isTrue(pageSize >= 1, "Page size must not be less than one");
+        Assert.notNull(sort, "Sort must not be null");
+        this.after = after;
+        this.pageSize = pageSize;
+        this.sort = sort;
+    }
+
+    /**
+     * Создать параметры постраничного просмотра по ключу.
+     *
+     * @param after    позиция, после которой выбираются записи; {@code null} - с начала.
+     * @param pageSize размер страницы.
+     * @param sort     порядок записей.
+     * @return параметры постраничного просмотра.
+     */
+    public static SeekRequest of(@Nullable SeekCursor after, int pageSize, Sort sort) {
+        return new SeekRequest(after, pageSize, sort);
+    }
+
+    /**
+     * Получить параметры первой страницы.
+     *
+     * @return параметры постраничного просмотра без позиции.
+     */
+    public SeekRequest first() {
+        return new SeekRequest(null, pageSize, sort);
+    }
+
+    /**
+     * Получить параметры страницы, следующей за позицией.
+     *
+     * @param after позиция последней записи текущей страницы.
+     * @return параметры постраничного просмотра.
+     */
+    public SeekRequest withAfter(@Nullable SeekCursor after) {
+        return new SeekRequest(after, pageSize, sort);
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.requestservice.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.practicum.interactionapi.dto.eventservice.EventDto;
+import ru.practicum.interactionapi.dto.eventservice.ParticipationEligibilityDto;
 import ru.practicum.interactionapi.dto.requestservice.RequestDto;
 import ru.practicum.interactionapi.dto.requestservice.RequestStatus;
 import ru.practicum.interactionapi.dto.requestservice.RequestsStatusDto;
@@ -29,6 +31,7 @@ import java.util.Collection;
  */
 @RequiredArgsConstructor
 @Service
+@Slf4j
 public class RequestServiceImpl implements RequestService {
     /**
      * Хранилище данных о заявках на участие в событиях.
@@ -61,33 +64,40 @@ public class RequestServiceImpl implements RequestService {
         if (!userServiceClient.isUserExists(requesterId)) {
             throw new UserNotFoundException(requesterId);
         }
-        if (!eventServiceClient.isEventExists(eventId)) {
-            throw new EventNotFoundException(eventId);
-        }
-        if (!eventServiceClient.isEventPublished(eventId)) {
+
+        ParticipationEligibilityDto eligibility = eventServiceClient.reserveParticipation(eventId, requesterId)
+                .orElseThrow(() -> new EventNotFoundException(eventId));
+
+        if (!eligibility.isPublished()) {
             throw new CreateRequestException("Невозможно создать заявку на участие в неопубликованном событии");
         }
-
-        EventDto event = eventServiceClient.getEvent(eventId);
-        if (event.getParticipantLimit() > 0 && event.getParticipantLimit() == event.getConfirmedRequests()) {
+        if (!eligibility.isReserved() && eligibility.getParticipantLimit() > 0 && eligibility.getParticipantLimit() <= eligibility.getConfirmedRequests()) {
             throw new CreateRequestException("Достигнут лимит заявок на участие в событии");
         }
-        if (event.getInitiator().getId().equals(requesterId)) {
+        if (eligibility.getInitiatorId().equals(requesterId)) {
             throw new CreateRequestException("Инициатору события нельзя создавать заявку на участие в своём событии");
         }
 
+        boolean autoConfirmed = eligibility.getParticipantLimit() == 0 || !eligibility.isRequestModeration();
+        if (autoConfirmed && !eligibility.isReserved()) {
+            throw new CreateRequestException("Достигнут лимит заявок на участие в событии");
+        }
+
         Request request = Request.builder()
                 .created(LocalDateTime.now())
-                .eventId(event.getId())
+                .eventId(eligibility.getEventId())
                 .requesterId(requesterId)
-                .status(event.getParticipantLimit() == 0 || !event.isRequestModeration() ? RequestStatus.CONFIRMED : RequestStatus.PENDING)
+                .status(autoConfirmed ? RequestStatus.CONFIRMED : RequestStatus.PENDING)
                 .build();
 
-        if (event.getParticipantLimit() == 0 || !event.isRequestModeration()) {
-            eventServiceClient.confirmParticipation(eventId);
+        try {
+            return requestMapper.mapToRequestDto(requestRepository.save(request));
+        } catch (RuntimeException ex) {
+            if (eligibility.isReserved()) {
+                releaseReservation(eventId, 1, ex);
+            }
+            throw ex;
         }
-
-        return requestMapper.mapToRequestDto(requestRepository.save(request));
     }
 
     /**
@@ -103,11 +113,7 @@ public class RequestServiceImpl implements RequestService {
      */
     @Override
     public Collection<RequestDto> getEventRequests(Long initiatorId, Long eventId) throws AccessToEventForbiddenException, EventNotFoundException {
-        if (!eventServiceClient.isEventExists(eventId)) {
-            throw new EventNotFoundException(eventId);
-        }
-
-        EventDto event = eventServiceClient.getEvent(eventId);
+        EventDto event = eventServiceClient.getEvent(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
         if (!event.getInitiator().getId().equals(initiatorId)) {
             throw new AccessToEventForbiddenException(eventId);
         }
@@ -124,11 +130,7 @@ public class RequestServiceImpl implements RequestService {
             throw new UpdateRequestStatusException("Заявку на участие в событии можно перевести только в статус CONFIRMED или REJECTED");
         }
 
-        if (!eventServiceClient.isEventExists(eventId)) {
-            throw new EventNotFoundException(eventId);
-        }
-
-        EventDto event = eventServiceClient.getEvent(eventId);
+        EventDto event = eventServiceClient.getEvent(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
         if (!event.getInitiator().getId().equals(initiatorId)) {
             throw new AccessToEventForbiddenException(eventId);
         }
@@ -153,16 +155,19 @@ public class RequestServiceImpl implements RequestService {
             throw new UpdateRequestStatusException("Статус можно изменить только у заявок, находящихся в статусе PENDING");
         }
 
-        int confirmedRequests = event.getConfirmedRequests();
-        int participationLimit = event.getParticipantLimit();
-
+        int granted = 0;
         switch (updateEventRequestsStatusDto.getStatus()) {
             case CONFIRMED -> {
+                granted = requests.isEmpty() ? 0 : eventServiceClient.confirmParticipation(eventId, requests.size());
+                if (!requests.isEmpty() && granted == 0) {
+                    throw new UpdateRequestStatusException("Достигнут лимит по заявкам на данное событие");
+                }
+
+                int remaining = granted;
                 for (Request request : requests) {
-                    if (confirmedRequests < participationLimit) {
-                        eventServiceClient.confirmParticipation(eventId);
+                    if (remaining > 0) {
                         request.setStatus(RequestStatus.CONFIRMED);
-                        confirmedRequests++;
+                        remaining--;
                     } else {
                         request.setStatus(RequestStatus.REJECTED);
                     }
@@ -175,7 +180,14 @@ public class RequestServiceImpl implements RequestService {
             }
         }
 
-        requestRepository.saveAll(requests);
+        try {
+            requestRepository.saveAll(requests);
+        } catch (RuntimeException ex) {
+            if (granted > 0) {
+                releaseReservation(eventId, granted, ex);
+            }
+            throw ex;
+        }
 
         return RequestsStatusDto.builder()
                 .confirmedRequests(requestMapper.mapToRequestDtoCollection(requests.stream().filter(request -> request.getStatus().equals(RequestStatus.CONFIRMED)).toList()))
@@ -198,10 +210,27 @@ public class RequestServiceImpl implements RequestService {
         }
 
         if (request.getStatus().equals(RequestStatus.CONFIRMED)) {
-            eventServiceClient.rejectParticipation(request.getEventId());
+            eventServiceClient.rejectParticipation(request.getEventId(), 1);
         }
 
         request.setStatus(RequestStatus.CANCELED);
         return requestMapper.mapToRequestDto(requestRepository.save(request));
     }
+
+    /**
+     * Освободить места в событии, занятые для заявок, которые не удалось сохранить.
+     * Ошибка освобождения добавляется к исходной ошибке, чтобы не скрыть её.
+     *
+     * @param eventId идентификатор события.
+     * @param count   количество занятых мест.
+     * @param cause   ошибка сохранения заявок.
+     */
+    private void releaseReservation(Long eventId, int count, RuntimeException cause) {
+        try {
+            eventServiceClient.rejectParticipation(eventId, count);
+        } catch (RuntimeException ex) {
+            log.error("Не удалось освободить {} мест в событии с id={} после ошибки сохранения заявок: {}", count, eventId, ex.getMessage());
+            cause.addSuppressed(ex);
+        }
+    }
 }
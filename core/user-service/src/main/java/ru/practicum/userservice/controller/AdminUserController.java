@@ -6,11 +6,14 @@ import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.interactionapi.dto.userservice.CreateUserDto;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
 import ru.practicum.interactionapi.exception.userservice.UserWithSameEmailAlreadyExistsException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 import ru.practicum.userservice.service.UserService;
 
 import java.util.Collection;
@@ -48,14 +51,17 @@ public class AdminUserController {
      * @param userIds коллекция идентификаторов пользователей, которых надо получить.
      * @param from    количество пользователей, которое необходимо пропустить.
      * @param size    количество пользователей, которое необходимо получить.
+     * @param after   позиция, после которой нужно получить пользователей (из заголовка {@value SeekPage#NEXT_CURSOR_HEADER} предыдущего ответа).
      * @return коллекция пользователей.
+     * @throws InvalidCursorException позиция {@code after} некорректная.
      */
     @GetMapping
-    public Collection<UserDto> getUsers(@RequestParam(name = "ids", required = false) Collection<Long> userIds,
-                                        @RequestParam(defaultValue = "0") @Min(0) int from,
-                                        @RequestParam(defaultValue = "10") @Min(1) int size) {
-        log.info("Get users - userIds: {}, from: {}, size: {}", userIds, from, size);
-        return userService.getUsers(userIds, from, size);
+    public ResponseEntity<Collection<UserDto>> getUsers(@RequestParam(name = "ids", required = false) Collection<Long> userIds,
+                                                        @RequestParam(defaultValue = "0") @Min(0) int from,
+                                                        @RequestParam(defaultValue = "10") @Min(1) int size,
+                                                        @RequestParam(required = false) String after) throws InvalidCursorException {
+        log.info("Get users - userIds: {}, from: {}, size: {}, after: {}", userIds, from, size, after);
+        return userService.getUsers(userIds, from, size, after).toResponseEntity();
     }
 
     /**
@@ -3,7 +3,10 @@ package ru.practicum.userservice.controller;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.interactionapi.bulk.InvalidPackedIdsException;
+import ru.practicum.interactionapi.bulk.PackedIds;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
 import ru.practicum.userservice.service.UserService;
@@ -35,6 +38,20 @@ public class InteractionController {
         return userService.getUsers(userIds);
     }
 
+    /**
+     * Получить коллекцию пользователей по упакованным идентификаторам.
+     *
+     * @param packedUserIds идентификаторы пользователей, упакованные {@link PackedIds#pack(Collection)}.
+     * @return коллекция пользователей в порядке возрастания идентификаторов.
+     * @throws InvalidPackedIdsException упакованные идентификаторы повреждены.
+     */
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Collection<UserDto> lookupUsers(@RequestBody byte[] packedUserIds) throws InvalidPackedIdsException {
+        Collection<Long> userIds = PackedIds.unpack(packedUserIds);
+        log.info("Lookup {} users", userIds.size());
+        return userService.getUsers(userIds);
+    }
+
     /**
      * Получить пользователя по его идентификатору.
      *
@@ -4,14 +4,38 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.interactionapi.bulk.InvalidPackedIdsException;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
 import ru.practicum.interactionapi.exception.userservice.UserWithSameEmailAlreadyExistsException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
 
 /**
  * Обработчик исключений, возникающих в сервисе.
  */
 @RestControllerAdvice
 public class UserServiceExceptionHandler {
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+     *
+     * @param invalidCursorException исключение, выбрасываемое сервисом, если позиция постраничного просмотра некорректная.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleInvalidCursorException(final InvalidCursorException invalidCursorException) {
+        return new ResponseEntity<>(invalidCursorException, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Обработать исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+     *
+     * @param invalidPackedIdsException исключение, выбрасываемое сервисом, если упакованные идентификаторы повреждены.
+     * @return результат обработки исключения.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Exception> handleInvalidPackedIdsException(final InvalidPackedIdsException invalidPackedIdsException) {
+        return new ResponseEntity<>(invalidPackedIdsException, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Обработать исключение, выбрасываемое сервисом, если пользователь не был найден.
      *
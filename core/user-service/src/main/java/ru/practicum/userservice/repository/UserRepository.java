@@ -1,9 +1,13 @@
 package ru.practicum.userservice.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.userservice.model.User;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Контракт хранилища данных о пользователях.
  */
@@ -16,4 +20,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return пользователя.
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Получить пользователей с идентификатором больше заданного в порядке возрастания идентификатора.
+     *
+     * @param id    идентификатор, после которого нужно получить пользователей.
+     * @param limit количество пользователей, которое необходимо получить.
+     * @return коллекция пользователей.
+     */
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Получить пользователей по идентификаторам в порядке возрастания идентификатора.
+     *
+     * @param ids идентификаторы пользователей.
+     * @return коллекция пользователей.
+     */
+    List<User> findAllByIdInOrderByIdAsc(Collection<Long> ids);
 }
@@ -4,6 +4,8 @@ import ru.practicum.interactionapi.dto.userservice.CreateUserDto;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
 import ru.practicum.interactionapi.exception.userservice.UserWithSameEmailAlreadyExistsException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
+import ru.practicum.interactionapi.pageable.SeekPage;
 
 import java.util.Collection;
 
@@ -26,9 +28,11 @@ public interface UserService {
      * @param userIds коллекция идентификаторов пользователей, которых надо получить.
      * @param from    количество пользователей, которое необходимо пропустить.
      * @param size    количество пользователей, которое необходимо получить.
-     * @return коллекция пользователей.
+     * @param after   позиция, после которой нужно получить пользователей; если задана, {@code from} не учитывается.
+     * @return страница пользователей.
+     * @throws InvalidCursorException позиция {@code after} некорректная.
      */
-    Collection<UserDto> getUsers(Collection<Long> userIds, int from, int size);
+    SeekPage<UserDto> getUsers(Collection<Long> userIds, int from, int size, String after) throws InvalidCursorException;
 
     /**
      * Получить коллекцию пользователей.
@@ -1,16 +1,23 @@
 package ru.practicum.userservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.interactionapi.dto.userservice.CreateUserDto;
 import ru.practicum.interactionapi.dto.userservice.UserDto;
 import ru.practicum.interactionapi.exception.userservice.UserNotFoundException;
 import ru.practicum.interactionapi.exception.userservice.UserWithSameEmailAlreadyExistsException;
+import ru.practicum.interactionapi.pageable.InvalidCursorException;
 import ru.practicum.interactionapi.pageable.PageOffset;
+import ru.practicum.interactionapi.pageable.SeekCursor;
+import ru.practicum.interactionapi.pageable.SeekPage;
+import ru.practicum.userservice.model.User;
 import ru.practicum.userservice.repository.UserRepository;
 import ru.practicum.userservice.service.mapper.UserMapper;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Сервис для работы с пользователями.
@@ -44,12 +51,16 @@ public class UserServiceImpl implements UserService {
      * {@inheritDoc}
      */
     @Override
-    public Collection<UserDto> getUsers(Collection<Long> userIds, int from, int size) {
+    public SeekPage<UserDto> getUsers(Collection<Long> userIds, int from, int size, String after) throws InvalidCursorException {
         if (userIds != null && !userIds.isEmpty()) {
-            return userMapper.mapToUserDtoCollection(userRepository.findAllById(userIds));
+            return SeekPage.of(userMapper.mapToUserDtoCollection(userRepository.findAllByIdInOrderByIdAsc(userIds)), null);
         }
 
-        return userMapper.mapToUserDtoCollection(userRepository.findAll(PageOffset.of(from, size)).getContent());
+        List<User> users = after != null
+                ? userRepository.findAllByIdGreaterThanOrderByIdAsc(SeekCursor.decode(after).getId(), Limit.of(size))
+                : userRepository.findAll(PageOffset.of(from, size, Sort.by("id").ascending())).getContent();
+
+        return SeekPage.of(userMapper.mapToUserDtoCollection(users), SeekPage.nextCursor(users, size, user -> SeekCursor.of(user.getId())));
     }
 
     /**
@@ -57,7 +68,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Collection<UserDto> getUsers(Collection<Long> userIds) {
-        return userMapper.mapToUserDtoCollection(userRepository.findAllById(userIds));
+        return userMapper.mapToUserDtoCollection(userRepository.findAllByIdInOrderByIdAsc(userIds));
     }
 
     /**
@@ -2,57 +2,303 @@ package ewm.client;
 
 import ewm.CreateEndpointHitDto;
 import ewm.EndpointStatDto;
-import ewm.exception.StatsServerUnavailable;
-import lombok.RequiredArgsConstructor;
-import org.springframework.cloud.client.ServiceInstance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-@RequiredArgsConstructor
 @Service
+@Slf4j
 public class StatsClient {
-    private final DiscoveryClient discoveryClient;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    private RestClient getRestClient() {
-        ServiceInstance serviceInstance;
+    /**
+     * Время простоя, после которого соединение из пула закрывается.
+     */
+    private static final TimeValue IDLE_CONNECTION_TIMEOUT = TimeValue.ofSeconds(30);
 
-        try {
-            serviceInstance = discoveryClient.getInstances("stats-server").getFirst();
-        } catch (Exception ex) {
-            throw new StatsServerUnavailable("Ошибка обнаружения адреса сервиса статистики с id: stats-server", ex);
+    private final StatsServerBalancer balancer;
+
+    /**
+     * HTTP-клиент с пулом постоянных соединений, общий для всех запросов к серверу статистики.
+     */
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+
+    /**
+     * Буфер запросов, ожидающих отправки на сервер статистики. Неблокирующая очередь не задерживает
+     * потоки обработки HTTP-запросов; её размер ограничивается счётчиком {@link #buffered}.
+     */
+    private final Queue<CreateEndpointHitDto> buffer = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Количество запросов в буфере.
+     */
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    /**
+     * Максимальное количество запросов в буфере.
+     */
+    private final int capacity;
+
+    /**
+     * Максимальное количество запросов, отправляемых на сервер статистики одним пакетом.
+     */
+    private final int batchSize;
+
+    /**
+     * Интервал (в миллисекундах), с которым буфер сбрасывается на сервер статистики независимо от его заполненности.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * Интервал (в миллисекундах) обновления списка экземпляров сервера статистики.
+     */
+    private final long discoveryRefreshIntervalMillis;
+
+    /**
+     * Признак, что сброс буфера уже запланирован и повторно планировать его не нужно.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final Counter flushedHits;
+    private final Counter droppedOnOverflowHits;
+    private final Counter droppedOnErrorHits;
+
+    /**
+     * Планировщик периодического сброса буфера и обновления списка экземпляров.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Исполнитель отправки запросов на сервер статистики: каждый сброс буфера выполняется в отдельном виртуальном потоке.
+     */
+    private ExecutorService sender;
+
+    public StatsClient(DiscoveryClient discoveryClient,
+                       MeterRegistry meterRegistry,
+                       @Value("${stats-client.buffer.capacity:10000}") int capacity,
+                       @Value("${stats-client.buffer.batch-size:500}") int batchSize,
+                       @Value("${stats-client.buffer.flush-interval-ms:1000}") long flushIntervalMillis,
+                       @Value("${stats-client.discovery.refresh-interval-ms:5000}") long discoveryRefreshIntervalMillis,
+                       @Value("${stats-client.http.max-connections:50}") int maxConnections,
+                       @Value("${stats-client.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                       @Value("${stats-client.http.connect-timeout-ms:1000}") long connectTimeoutMillis,
+                       @Value("${stats-client.http.read-timeout-ms:5000}") long readTimeoutMillis) {
+        this.balancer = new StatsServerBalancer(discoveryClient);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.discoveryRefreshIntervalMillis = discoveryRefreshIntervalMillis;
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                                .build())
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT)
+                .build();
+        this.restClient = RestClient.builder()
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+
+        this.flushedHits = Counter.builder("stats.client.hits.flushed")
+                .description("Количество запросов, успешно отправленных на сервер статистики")
+                .register(meterRegistry);
+        this.droppedOnOverflowHits = Counter.builder("stats.client.hits.dropped")
+                .description("Количество запросов, не отправленных на сервер статистики")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.droppedOnErrorHits = Counter.builder("stats.client.hits.dropped")
+                .description("Количество запросов, не отправленных на сервер статистики")
+                .tag("reason", "error")
+                .register(meterRegistry);
+        Gauge.builder("stats.client.hits.buffered", buffered, AtomicInteger::get)
+                .description("Количество запросов, ожидающих отправки на сервер статистики")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stats-client-sender-", 0).factory());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-client-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduleFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::refreshInstances, 0, discoveryRefreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        scheduler.shutdownNow();
+        sender.shutdown();
+        if (!sender.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+            sender.shutdownNow();
+        }
+        flush();
+        httpClient.close();
+    }
+
+    /**
+     * Поставить запрос в очередь на отправку на сервер статистики.
+     * Если буфер заполнен, запрос отбрасывается, чтобы не задерживать вызывающий поток.
+     *
+     * @param createEndpointHitDto информация о запросе.
+     */
+    public void sendHit(CreateEndpointHitDto createEndpointHitDto) {
+        int size = buffered.incrementAndGet();
+        if (size > capacity) {
+            buffered.decrementAndGet();
+            droppedOnOverflowHits.increment();
+            return;
         }
 
-        String baseUrl = String.format("%s://%s:%d", serviceInstance.getScheme(), serviceInstance.getHost(), serviceInstance.getPort());
-        return RestClient.builder().baseUrl(baseUrl).build();
+        buffer.offer(createEndpointHitDto);
+        if (size >= batchSize) {
+            scheduleFlush();
+        }
     }
 
-    public ResponseEntity<Void> sendHit(CreateEndpointHitDto createEndpointHitDto) {
-        return getRestClient().post()
-                .uri("/hit")
+    /**
+     * Отправить пакет запросов на сервер статистики.
+     *
+     * @param createEndpointHitDtos коллекция запросов.
+     * @return ответ сервера статистики.
+     */
+    public ResponseEntity<Void> sendHits(List<CreateEndpointHitDto> createEndpointHitDtos) {
+        return balancer.execute(baseUri -> restClient.post()
+                .uri(UriComponentsBuilder.fromUri(baseUri).path("/hit/batch").build().toUri())
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(createEndpointHitDto)
+                .body(createEndpointHitDtos)
                 .retrieve()
-                .toEntity(Void.class);
+                .toEntity(Void.class));
     }
 
     public ResponseEntity<List<EndpointStatDto>> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
-        return getRestClient().get()
-                .uri(uriBuilder -> uriBuilder.path("/stats")
-                        .queryParam("start", start.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                        .queryParam("end", end.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+        return getStats(start, end, uris, unique, false);
+    }
+
+    /**
+     * Получить статистику по запросам.
+     *
+     * @param start       начало периода.
+     * @param end         окончание периода.
+     * @param uris        список адресов, по которым нужна статистика.
+     * @param unique      учитывать только уникальные IP-адреса.
+     * @param approximate считать уникальные IP-адреса приближённо (HyperLogLog), погрешность около 1.6%.
+     * @return ответ сервера статистики.
+     */
+    public ResponseEntity<List<EndpointStatDto>> getStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                          boolean unique, boolean approximate) {
+        return balancer.execute(baseUri -> restClient.get()
+                .uri(UriComponentsBuilder.fromUri(baseUri).path("/stats")
+                        .queryParam("start", start.format(DATE_TIME_FORMATTER))
+                        .queryParam("end", end.format(DATE_TIME_FORMATTER))
                         .queryParam("uris", uris)
                         .queryParam("unique", unique)
-                        .build())
+                        .queryParam("approximate", approximate)
+                        .encode()
+                        .build()
+                        .toUri())
                 .retrieve()
-                .toEntity(new ParameterizedTypeReference<>() {
-                });
+                .toEntity(new ParameterizedTypeReference<List<EndpointStatDto>>() {
+                }));
+    }
+
+    /**
+     * Обновить список экземпляров сервера статистики. При ошибке остаётся прежний список.
+     */
+    private void refreshInstances() {
+        try {
+            balancer.refresh();
+        } catch (Exception ex) {
+            log.warn("Не удалось обновить список экземпляров сервера статистики: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Запланировать сброс буфера в виртуальном потоке, если он ещё не запланирован.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            sender.execute(this::flush);
+        } catch (Exception ex) {
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * Сбросить накопленные в буфере запросы на сервер статистики пакетами по {@link #batchSize} штук.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+
+        List<CreateEndpointHitDto> batch = new ArrayList<>(batchSize);
+        while (drainTo(batch) > 0) {
+            try {
+                sendHits(batch);
+                flushedHits.increment(batch.size());
+            } catch (Exception ex) {
+                droppedOnErrorHits.increment(batch.size());
+                log.error("Не удалось отправить {} запросов на сервер статистики: {}", batch.size(), ex.getMessage());
+            }
+
+            batch.clear();
+        }
+    }
+
+    /**
+     * Извлечь из буфера не более {@link #batchSize} запросов.
+     */
+    private int drainTo(List<CreateEndpointHitDto> batch) {
+        CreateEndpointHitDto createEndpointHitDto;
+        while (batch.size() < batchSize && (createEndpointHitDto = buffer.poll()) != null) {
+            batch.add(createEndpointHitDto);
+        }
+
+        buffered.addAndGet(-batch.size());
+        return batch.size();
     }
 }
@@ -0,0 +1,105 @@
+package ewm.client;
+
+import ewm.exception.StatsServerUnavailable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Выбор экземпляра сервера статистики с наименьшим количеством незавершённых запросов.
+ * Список экземпляров хранится в памяти и обновляется из реестра сервисов вызовом {@link #refresh()}.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class StatsServerBalancer {
+    static final String SERVICE_ID = "stats-server";
+
+    private final DiscoveryClient discoveryClient;
+
+    /**
+     * Известные экземпляры сервера статистики. Список заменяется целиком при обновлении.
+     */
+    private volatile List<Instance> instances = List.of();
+
+    /**
+     * Обновить список экземпляров из реестра сервисов.
+     * Счётчики незавершённых запросов сохраняются для экземпляров, оставшихся в реестре.
+     */
+    void refresh() {
+        List<ServiceInstance> discovered;
+        try {
+            discovered = discoveryClient.getInstances(SERVICE_ID);
+        } catch (Exception ex) {
+            throw new StatsServerUnavailable("Ошибка обнаружения адреса сервиса статистики с id: " + SERVICE_ID, ex);
+        }
+
+        Map<URI, Instance> known = instances.stream().collect(Collectors.toMap(Instance::uri, Function.identity()));
+        instances = discovered.stream()
+                .map(serviceInstance -> URI.create(String.format("%s://%s:%d", serviceInstance.getScheme(), serviceInstance.getHost(), serviceInstance.getPort())))
+                .distinct()
+                .map(uri -> known.getOrDefault(uri, new Instance(uri)))
+                .toList();
+    }
+
+    /**
+     * Выполнить запрос к экземпляру сервера статистики с наименьшим количеством незавершённых запросов.
+     *
+     * @param call запрос, получающий базовый адрес экземпляра.
+     * @param <T>  тип результата запроса.
+     * @return результат запроса.
+     */
+    <T> T execute(Function<URI, T> call) {
+        Instance instance = choose();
+
+        instance.outstanding().incrementAndGet();
+        try {
+            return call.apply(instance.uri());
+        } finally {
+            instance.outstanding().decrementAndGet();
+        }
+    }
+
+    private Instance choose() {
+        List<Instance> snapshot = instances;
+        if (snapshot.isEmpty()) {
+            refresh();
+            snapshot = instances;
+        }
+
+        if (snapshot.isEmpty()) {
+            throw new StatsServerUnavailable("Ошибка обнаружения адреса сервиса статистики с id: " + SERVICE_ID);
+        }
+
+        // Обход со случайного экземпляра распределяет запросы между экземплярами с одинаковой нагрузкой.
+        int offset = ThreadLocalRandom.current().nextInt(snapshot.size());
+        Instance best = null;
+        for (int i = 0; i < snapshot.size(); i++) {
+            Instance candidate = snapshot.get((offset + i) % snapshot.size());
+            if (best == null || candidate.outstanding().get() < best.outstanding().get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Экземпляр сервера статистики.
+     *
+     * @param uri         базовый адрес.
+     * @param outstanding количество незавершённых запросов к экземпляру.
+     */
+    private record Instance(URI uri, AtomicInteger outstanding) {
+        Instance(URI uri) {
+            this(uri, new AtomicInteger());
+        }
+    }
+}
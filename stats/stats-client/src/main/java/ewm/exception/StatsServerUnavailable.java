@@ -1,6 +1,10 @@
 package ewm.exception;
 
 public class StatsServerUnavailable extends RuntimeException {
+    public StatsServerUnavailable(String message) {
+        super(message);
+    }
+
     public StatsServerUnavailable(String message, Throwable cause) {
         super(message, cause);
     }
@@ -0,0 +1,241 @@
+package ewm.dictionary;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словари идентификаторов сервисов и адресов запросов с двунаправленным кэшем в памяти.
+ * <p>
+ * Записи словарей никогда не изменяются и не удаляются, поэтому кэш не требует инвалидации
+ * и остаётся согласованным между экземплярами сервиса. Новые значения добавляются одним запросом на пакет
+ * в текущей транзакции и попадают в кэш только после её фиксации, чтобы откат транзакции сохранения запросов
+ * не оставил в кэше несуществующий идентификатор.
+ * <p>
+ * Отсутствие значения в словаре при поиске без добавления кэшируется на {@link #absentTtlMillis} миллисекунд.
+ */
+@Component
+@Slf4j
+public class HitDictionary {
+    /**
+     * Максимальное количество отсутствующих значений в кэше одного словаря, при превышении кэш очищается.
+     */
+    private static final int MAX_ABSENT = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Время (в миллисекундах), в течение которого отсутствие значения в словаре не перепроверяется в БД.
+     */
+    private final long absentTtlMillis;
+
+    private final Entries apps = new Entries("apps", "app");
+    private final Entries uris = new Entries("uris", "uri");
+
+    public HitDictionary(JdbcTemplate jdbcTemplate,
+                         @Value("${stats-server.dictionary.absent-ttl-ms:5000}") long absentTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.absentTtlMillis = absentTtlMillis;
+    }
+
+    @PostConstruct
+    public void load() {
+        apps.load();
+        uris.load();
+        log.info("Загружены словари: {} сервисов, {} адресов", apps.ids.size(), uris.ids.size());
+    }
+
+    /**
+     * Получить идентификаторы сервисов, добавив отсутствующие в словарь.
+     * Должен вызываться в транзакции, в которой идентификаторы будут использованы.
+     *
+     * @param apps названия сервисов.
+     * @return идентификаторы по названиям сервисов.
+     */
+    public Map<String, Integer> appIds(Collection<String> apps) {
+        return this.apps.idsOf(apps);
+    }
+
+    /**
+     * Получить идентификаторы адресов, добавив отсутствующие в словарь.
+     * Должен вызываться в транзакции, в которой идентификаторы будут использованы.
+     *
+     * @param uris адреса запросов.
+     * @return идентификаторы по адресам запросов.
+     */
+    public Map<String, Integer> uriIds(Collection<String> uris) {
+        return this.uris.idsOf(uris);
+    }
+
+    /**
+     * Найти идентификатор адреса, не добавляя его в словарь.
+     *
+     * @param uri адрес запроса.
+     * @return идентификатор, если адрес уже встречался.
+     */
+    public Optional<Integer> findUriId(String uri) {
+        return uris.findId(uri);
+    }
+
+    /**
+     * Получить название сервиса по идентификатору.
+     *
+     * @param id идентификатор.
+     * @return название сервиса.
+     */
+    public String app(int id) {
+        return apps.valueOf(id);
+    }
+
+    /**
+     * Получить адрес запроса по идентификатору.
+     *
+     * @param id идентификатор.
+     * @return адрес запроса.
+     */
+    public String uri(int id) {
+        return uris.valueOf(id);
+    }
+
+    /**
+     * Словарь одной таблицы: значения и идентификаторы в обе стороны.
+     */
+    private class Entries {
+        private final String table;
+        private final String column;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> values = new ConcurrentHashMap<>();
+
+        /**
+         * Время, до которого значения считаются отсутствующими в словаре.
+         */
+        private final Map<String, Long> absent = new ConcurrentHashMap<>();
+
+        Entries(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+
+        void load() {
+            jdbcTemplate.query("SELECT id, " + column + " FROM " + table,
+                    rs -> {
+                        put(rs.getInt("id"), rs.getString(column));
+                    });
+        }
+
+        /**
+         * Получить идентификаторы значений, добавив отсутствующие в словарь одним запросом.
+         * Значения добавляются в порядке сортировки, поэтому параллельные транзакции блокируют записи
+         * уникального индекса в одном порядке и не взаимоблокируются.
+         */
+        Map<String, Integer> idsOf(Collection<String> values) {
+            Map<String, Integer> result = new HashMap<>();
+            SortedSet<String> missing = new TreeSet<>();
+            for (String value : values) {
+                Integer id = ids.get(value);
+                if (id != null) {
+                    result.put(value, id);
+                } else {
+                    missing.add(value);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return result;
+            }
+
+            Map<String, Integer> added = new HashMap<>();
+            String[] array = missing.toArray(String[]::new);
+            jdbcTemplate.query(con -> {
+                        PreparedStatement ps = con.prepareStatement("INSERT INTO " + table + " (" + column + ")"
+                                + " SELECT v FROM UNNEST(?::varchar[]) AS v ORDER BY v"
+                                + " ON CONFLICT (" + column + ") DO NOTHING RETURNING id, " + column);
+                        ps.setArray(1, con.createArrayOf("varchar", array));
+                        return ps;
+                    },
+                    rs -> {
+                        added.put(rs.getString(column), rs.getInt("id"));
+                    });
+
+            if (added.size() < missing.size()) {
+                String[] existing = missing.stream().filter(value -> !added.containsKey(value)).toArray(String[]::new);
+                jdbcTemplate.query(con -> {
+                            PreparedStatement ps = con.prepareStatement("SELECT id, " + column + " FROM " + table + " WHERE " + column + " = ANY(?::varchar[])");
+                            ps.setArray(1, con.createArrayOf("varchar", existing));
+                            return ps;
+                        },
+                        rs -> {
+                            added.put(rs.getString(column), rs.getInt("id"));
+                        });
+            }
+
+            result.putAll(added);
+            putAfterCommit(added);
+            return result;
+        }
+
+        Optional<Integer> findId(String value) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                return Optional.of(id);
+            }
+
+            Long absentUntil = absent.get(value);
+            if (absentUntil != null && absentUntil > System.currentTimeMillis()) {
+                return Optional.empty();
+            }
+
+            List<Integer> found = jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE " + column + " = ?", Integer.class, value);
+            if (found.isEmpty()) {
+                if (absent.size() >= MAX_ABSENT) {
+                    absent.clear();
+                }
+                absent.put(value, System.currentTimeMillis() + absentTtlMillis);
+            }
+            found.forEach(foundId -> put(foundId, value));
+            return found.stream().findFirst();
+        }
+
+        String valueOf(int id) {
+            String value = values.get(id);
+            if (value != null) {
+                return value;
+            }
+
+            value = jdbcTemplate.queryForObject("SELECT " + column + " FROM " + table + " WHERE id = ?", String.class, id);
+            put(id, value);
+            return value;
+        }
+
+        private void put(int id, String value) {
+            ids.put(value, id);
+            values.put(id, value);
+            absent.remove(value);
+        }
+
+        /**
+         * Добавить значения в кэш после фиксации текущей транзакции или сразу, если транзакции нет.
+         */
+        private void putAfterCommit(Map<String, Integer> added) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                added.forEach((value, id) -> put(id, value));
+                return;
+            }
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    added.forEach((value, id) -> put(id, value));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ewm.hit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Синхронный приём записей о запросах: запись в БД выполняется в потоке HTTP-запроса.
+ */
+@Component
+@ConditionalOnProperty(name = "stats-server.ingestion.mode", havingValue = "direct", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DirectHitIngestion implements HitIngestion {
+    private final EndpointHitWriter endpointHitWriter;
+
+    @Override
+    public void ingest(Collection<EndpointHit> endpointHits) {
+        endpointHitWriter.write(endpointHits);
+    }
+}
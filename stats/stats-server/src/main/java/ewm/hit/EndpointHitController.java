@@ -26,12 +26,19 @@ public class EndpointHitController {
         endpointHitService.createEndpointHit(createEndpointHitDto);
     }
 
+    @PostMapping("/hit/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createHits(@RequestBody List<@Valid CreateEndpointHitDto> createEndpointHitDtos) {
+        endpointHitService.createEndpointHits(createEndpointHitDtos);
+    }
+
     @GetMapping("/stats")
     @ResponseStatus(HttpStatus.OK)
     public Collection<EndpointStatDto> viewStats(@RequestParam(name = "start") String start,
                                                  @RequestParam(name = "end") String end,
                                                  @RequestParam(name = "uris", required = false) List<String> uris,
-                                                 @RequestParam(name = "unique", defaultValue = "false") boolean unique) {
+                                                 @RequestParam(name = "unique", defaultValue = "false") boolean unique,
+                                                 @RequestParam(name = "approximate", defaultValue = "false") boolean approximate) {
         LocalDateTime startDate = LocalDateTime.parse(start, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         LocalDateTime endDate = LocalDateTime.parse(end, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
 
@@ -39,6 +46,6 @@ public class EndpointHitController {
             throw new InvalidRequestException("Start can't be greater than End");
         }
 
-        return endpointHitService.viewStats(startDate, endDate, uris, unique);
+        return endpointHitService.viewStats(startDate, endDate, uris, unique, approximate);
     }
 }
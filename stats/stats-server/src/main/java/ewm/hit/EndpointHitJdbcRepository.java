@@ -0,0 +1,85 @@
+package ewm.hit;
+
+import ewm.EndpointStatDto;
+import ewm.dictionary.HitDictionary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище записей о запросах, выполняющее пакетную вставку средствами JDBC.
+ * Сервис и адрес хранятся идентификаторами из {@link HitDictionary}, IP-адрес - значением типа {@code inet}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class EndpointHitJdbcRepository {
+    /**
+     * Количество записей, отправляемых в БД одним пакетом.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_HIT = "INSERT INTO hits (app_id, uri_id, ip, timestamp) VALUES (?, ?, ?::inet, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HitDictionary hitDictionary;
+
+    /**
+     * Сохранить коллекцию записей о запросах пакетами по {@value #BATCH_SIZE} строк.
+     * Идентификаторы сервисов и адресов получаются из словаря для всего пакета до начала вставки.
+     *
+     * @param endpointHits коллекция записей о запросах.
+     */
+    @Transactional
+    public void saveAll(Collection<EndpointHit> endpointHits) {
+        Map<String, Integer> appIds = hitDictionary.appIds(endpointHits.stream().map(EndpointHit::getApp).collect(Collectors.toSet()));
+        Map<String, Integer> uriIds = hitDictionary.uriIds(endpointHits.stream().map(EndpointHit::getUri).collect(Collectors.toSet()));
+
+        jdbcTemplate.batchUpdate(INSERT_HIT, endpointHits, BATCH_SIZE, (ps, endpointHit) -> {
+            ps.setInt(1, appIds.get(endpointHit.getApp()));
+            ps.setInt(2, uriIds.get(endpointHit.getUri()));
+            ps.setString(3, endpointHit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(endpointHit.getTimestamp()));
+        });
+    }
+
+    /**
+     * Получить количество уникальных IP-адресов за интервал.
+     * Группировка выполняется по идентификаторам, названия подставляются из словаря.
+     *
+     * @param start начало интервала (включительно).
+     * @param end   конец интервала (включительно).
+     * @param uris  адреса, по которым нужна статистика; {@code null} или пустая коллекция - по всем адресам.
+     * @return статистика запросов, упорядоченная по убыванию количества уникальных IP-адресов.
+     */
+    public List<EndpointStatDto> findUniqueStats(LocalDateTime start, LocalDateTime end, Collection<String> uris) {
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(start), Timestamp.valueOf(end)));
+        String uriFilter = "";
+
+        if (uris != null && !uris.isEmpty()) {
+            List<Integer> uriIds = uris.stream().map(hitDictionary::findUriId).flatMap(Optional::stream).toList();
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+
+            args.addAll(uriIds);
+            uriFilter = " AND uri_id IN (" + String.join(", ", Collections.nCopies(uriIds.size(), "?")) + ")";
+        }
+
+        return jdbcTemplate.query(
+                "SELECT app_id, uri_id, COUNT(DISTINCT ip) AS hits FROM hits WHERE timestamp BETWEEN ? AND ?" + uriFilter
+                        + " GROUP BY app_id, uri_id ORDER BY hits DESC",
+                (rs, rowNum) -> new EndpointStatDto(hitDictionary.app(rs.getInt("app_id")), hitDictionary.uri(rs.getInt("uri_id")), rs.getLong("hits")),
+                args.toArray());
+    }
+}
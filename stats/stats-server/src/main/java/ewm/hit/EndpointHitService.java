@@ -10,5 +10,7 @@ import java.util.List;
 public interface EndpointHitService {
     void createEndpointHit(CreateEndpointHitDto createEndpointHitDto);
 
-    Collection<EndpointStatDto> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
+    void createEndpointHits(Collection<CreateEndpointHitDto> createEndpointHitDtos);
+
+    Collection<EndpointStatDto> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique, boolean approximate);
 }
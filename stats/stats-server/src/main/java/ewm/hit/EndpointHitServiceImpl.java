@@ -2,8 +2,12 @@ package ewm.hit;
 
 import ewm.CreateEndpointHitDto;
 import ewm.EndpointStatDto;
+import ewm.exception.InvalidRequestException;
+import ewm.hll.UniqueIpSketchRepository;
+import ewm.rollup.HitRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
@@ -12,25 +16,44 @@ import java.util.List;
 @RequiredArgsConstructor
 @Service
 public class EndpointHitServiceImpl implements EndpointHitService {
-    private final EndpointHitRepository endpointHitRepository;
+    private final EndpointHitJdbcRepository endpointHitJdbcRepository;
+    private final HitIngestion hitIngestion;
+    private final HitRollupRepository hitRollupRepository;
+    private final UniqueIpSketchRepository uniqueIpSketchRepository;
 
     @Override
     public void createEndpointHit(CreateEndpointHitDto createEndpointHitDto) {
-        endpointHitRepository.save(EndpointHitMapper.INSTANCE.toEndpointHit(createEndpointHitDto));
+        hitIngestion.ingest(List.of(toEndpointHit(createEndpointHitDto)));
     }
 
     @Override
-    public Collection<EndpointStatDto> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
-        if (uris == null || uris.isEmpty()) {
-            if (!unique) {
-                return endpointHitRepository.findByTimestampBetween(start, end);
-            }
-            return endpointHitRepository.findByTimestampBetweenDistinctByUri(start, end);
+    public void createEndpointHits(Collection<CreateEndpointHitDto> createEndpointHitDtos) {
+        if (createEndpointHitDtos.isEmpty()) {
+            return;
         }
 
+        hitIngestion.ingest(createEndpointHitDtos.stream().map(this::toEndpointHit).toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<EndpointStatDto> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique, boolean approximate) {
         if (!unique) {
-            return endpointHitRepository.findByTimestampBetweenAndUriIn(start, end, uris);
+            return hitRollupRepository.findStats(start, end, uris);
+        }
+
+        if (approximate) {
+            return uniqueIpSketchRepository.findStats(start, end, uris);
         }
-        return endpointHitRepository.findByTimestampBetweenAndUriInDistinctByUri(start, end, uris);
+
+        return endpointHitJdbcRepository.findUniqueStats(start, end, uris);
+    }
+
+    private EndpointHit toEndpointHit(CreateEndpointHitDto createEndpointHitDto) {
+        if (!IpAddressValidator.isValid(createEndpointHitDto.getIp())) {
+            throw new InvalidRequestException("Invalid IP address: " + createEndpointHitDto.getIp());
+        }
+
+        return EndpointHitMapper.INSTANCE.toEndpointHit(createEndpointHitDto);
     }
 }
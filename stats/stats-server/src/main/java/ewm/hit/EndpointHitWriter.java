@@ -0,0 +1,37 @@
+package ewm.hit;
+
+import ewm.hll.UniqueIpSketchBuffer;
+import ewm.rollup.HitRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Запись информации о запросах в БД вместе с обновлением агрегатов по ним.
+ */
+@Component
+@RequiredArgsConstructor
+public class EndpointHitWriter {
+    private final EndpointHitJdbcRepository endpointHitJdbcRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final UniqueIpSketchBuffer uniqueIpSketchBuffer;
+
+    /**
+     * Сохранить записи о запросах и обновить счётчики запросов в одной транзакции.
+     * IP-адреса учитываются в скетчах уникальных IP-адресов, накапливаемых в памяти.
+     *
+     * @param endpointHits коллекция записей о запросах.
+     */
+    @Transactional
+    public void write(Collection<EndpointHit> endpointHits) {
+        if (endpointHits.isEmpty()) {
+            return;
+        }
+
+        endpointHitJdbcRepository.saveAll(endpointHits);
+        hitRollupRepository.add(endpointHits);
+        uniqueIpSketchBuffer.add(endpointHits);
+    }
+}
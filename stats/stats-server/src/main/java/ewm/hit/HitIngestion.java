@@ -0,0 +1,16 @@
+package ewm.hit;
+
+import java.util.Collection;
+
+/**
+ * Способ приёма записей о запросах.
+ * Выбирается свойством {@code stats-server.ingestion.mode}.
+ */
+public interface HitIngestion {
+    /**
+     * Принять записи о запросах на сохранение.
+     *
+     * @param endpointHits коллекция записей о запросах.
+     */
+    void ingest(Collection<EndpointHit> endpointHits);
+}
@@ -0,0 +1,45 @@
+package ewm.hit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.regex.Pattern;
+
+/**
+ * Проверка IP-адресов перед сохранением в столбец типа {@code inet}.
+ * Адрес проверяется как литерал, без обращения к DNS.
+ */
+public final class IpAddressValidator {
+    private static final Pattern IPV4_PATTERN = Pattern.compile("((25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)");
+    private static final Pattern IPV6_CHARACTERS_PATTERN = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private IpAddressValidator() {
+    }
+
+    /**
+     * Проверить, является ли строка IPv4- или IPv6-адресом.
+     *
+     * @param ip строка с адресом.
+     * @return признак корректности адреса.
+     */
+    public static boolean isValid(String ip) {
+        if (ip == null) {
+            return false;
+        }
+
+        if (IPV4_PATTERN.matcher(ip).matches()) {
+            return true;
+        }
+
+        // Строка с двоеточием разбирается InetAddress как литерал IPv6 без поиска имени в DNS.
+        if (!ip.contains(":") || !IPV6_CHARACTERS_PATTERN.matcher(ip).matches()) {
+            return false;
+        }
+
+        try {
+            InetAddress.getByName(ip);
+            return true;
+        } catch (UnknownHostException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ewm.hll;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Скетч HyperLogLog для приближённого подсчёта количества уникальных значений.
+ * Использует 2^{@value #PRECISION} регистров, что даёт стандартную ошибку около 1.6%.
+ * Скетчи одинаковой точности объединяются поэлементным максимумом регистров.
+ */
+public final class HyperLogLog {
+    /**
+     * Количество бит хэша, определяющих номер регистра.
+     */
+    public static final int PRECISION = 12;
+
+    /**
+     * Количество регистров.
+     */
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(new byte[REGISTERS]);
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Восстановить скетч из сериализованного представления.
+     *
+     * @param bytes значения регистров.
+     * @return скетч.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length != REGISTERS) {
+            throw new IllegalArgumentException(String.format("Ожидалось %d регистров, получено %d", REGISTERS, bytes.length));
+        }
+
+        return new HyperLogLog(bytes.clone());
+    }
+
+    /**
+     * Учесть значение в скетче.
+     *
+     * @param value значение.
+     */
+    public void add(String value) {
+        long hash = hash(value);
+
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Объединить скетч с другим скетчем.
+     *
+     * @param other скетч, значения которого нужно учесть.
+     * @return текущий скетч.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Оценить количество уникальных значений, учтённых в скетче.
+     *
+     * @return оценка количества уникальных значений.
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+
+        return Math.round(estimate);
+    }
+
+    /**
+     * Получить сериализованное представление скетча.
+     *
+     * @return значения регистров.
+     */
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    /**
+     * 64-битный хэш FNV-1a с финальным перемешиванием из MurmurHash3 для равномерного распределения старших бит.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,92 @@
+package ewm.hll;
+
+import ewm.dictionary.HitDictionary;
+import ewm.rollup.RollupPlan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Построение скетчей уникальных IP-адресов по записям о запросах, сохранённым до появления скетчей.
+ * Выполняется при запуске приложения, только если скетчей ещё нет.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UniqueIpSketchBackfill implements ApplicationRunner {
+    private static final int FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UniqueIpSketchRepository uniqueIpSketchRepository;
+    private final HitDictionary hitDictionary;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (!uniqueIpSketchRepository.isEmpty()) {
+            return;
+        }
+
+        Accumulator hourly = new Accumulator(RollupPlan.Source.HOUR);
+        Accumulator daily = new Accumulator(RollupPlan.Source.DAY);
+
+        JdbcTemplate streamingJdbcTemplate = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+        streamingJdbcTemplate.query("SELECT app_id, uri_id, timestamp, HOST(ip) AS ip FROM hits ORDER BY app_id, uri_id, timestamp", rs -> {
+            String app = hitDictionary.app(rs.getInt("app_id"));
+            String uri = hitDictionary.uri(rs.getInt("uri_id"));
+            LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
+            String ip = rs.getString("ip");
+
+            hourly.add(app, uri, timestamp, ip);
+            daily.add(app, uri, timestamp, ip);
+        });
+        hourly.flush();
+        daily.flush();
+
+        log.info("Построено {} почасовых и {} посуточных скетчей уникальных IP-адресов", hourly.flushed, daily.flushed);
+    }
+
+    /**
+     * Накопитель скетча для текущего ключа. Записи читаются упорядоченными по ключу,
+     * поэтому в памяти одновременно находится только один скетч каждой гранулярности.
+     */
+    @RequiredArgsConstructor
+    private class Accumulator {
+        private final RollupPlan.Source granularity;
+
+        private UniqueIpSketchRepository.SketchKey key;
+        private HyperLogLog sketch;
+        private long flushed;
+
+        void add(String app, String uri, LocalDateTime timestamp, String ip) {
+            UniqueIpSketchRepository.SketchKey current = new UniqueIpSketchRepository.SketchKey(app, uri, timestamp.truncatedTo(granularity.getUnit()));
+            if (!Objects.equals(current, key)) {
+                flush();
+                key = current;
+                sketch = new HyperLogLog();
+            }
+
+            sketch.add(ip);
+        }
+
+        void flush() {
+            if (key == null) {
+                return;
+            }
+
+            uniqueIpSketchRepository.merge(granularity, new TreeMap<>(Map.of(key, sketch)));
+            flushed++;
+            key = null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ewm.hll;
+
+import ewm.hit.EndpointHit;
+import ewm.rollup.RollupPlan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накопитель скетчей уникальных IP-адресов в памяти.
+ * <p>
+ * IP-адреса записей о запросах сворачиваются в почасовые и посуточные скетчи по ключу, которые раз в
+ * {@link #flushIntervalMillis} миллисекунд объединяются с сохранёнными скетчами одним пакетом на гранулярность.
+ * Учёт IP-адреса в скетче идемпотентен, поэтому повторное сохранение тех же записей оценку не искажает.
+ * При аварийном завершении процесса скетчи, накопленные после последнего сохранения, теряются,
+ * и оценка уникальных IP-адресов за это время может быть занижена.
+ */
+@Component
+@Slf4j
+public class UniqueIpSketchBuffer {
+    private static final List<RollupPlan.Source> GRANULARITIES = List.of(RollupPlan.Source.HOUR, RollupPlan.Source.DAY);
+
+    private final UniqueIpSketchRepository uniqueIpSketchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Интервал (в миллисекундах) между сохранениями накопленных скетчей в БД.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * Накопленные и ещё не сохранённые скетчи по гранулярностям.
+     */
+    private final Map<RollupPlan.Source, SortedMap<UniqueIpSketchRepository.SketchKey, HyperLogLog>> pending =
+            new EnumMap<>(RollupPlan.Source.class);
+
+    private ScheduledExecutorService flushExecutor;
+
+    public UniqueIpSketchBuffer(UniqueIpSketchRepository uniqueIpSketchRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${stats-server.unique-ips.flush-interval-ms:1000}") long flushIntervalMillis) {
+        this.uniqueIpSketchRepository = uniqueIpSketchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flushIntervalMillis = flushIntervalMillis;
+
+        GRANULARITIES.forEach(granularity -> pending.put(granularity, new TreeMap<>()));
+    }
+
+    @PostConstruct
+    public void start() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-server-sketch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flushExecutor.shutdown();
+        if (!flushExecutor.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+            flushExecutor.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Учесть IP-адреса записей о запросах в почасовых и посуточных скетчах.
+     *
+     * @param endpointHits коллекция записей о запросах.
+     */
+    public void add(Collection<EndpointHit> endpointHits) {
+        synchronized (pending) {
+            for (RollupPlan.Source granularity : GRANULARITIES) {
+                SortedMap<UniqueIpSketchRepository.SketchKey, HyperLogLog> sketches = pending.get(granularity);
+                for (EndpointHit endpointHit : endpointHits) {
+                    UniqueIpSketchRepository.SketchKey key = new UniqueIpSketchRepository.SketchKey(endpointHit.getApp(),
+                            endpointHit.getUri(), endpointHit.getTimestamp().truncatedTo(granularity.getUnit()));
+                    sketches.computeIfAbsent(key, k -> new HyperLogLog()).add(endpointHit.getIp());
+                }
+            }
+        }
+    }
+
+    /**
+     * Сохранить накопленные скетчи в БД одной транзакцией.
+     * Если сохранить не удалось, скетчи возвращаются в накопитель и сохраняются при следующем запуске.
+     */
+    private void flush() {
+        Map<RollupPlan.Source, SortedMap<UniqueIpSketchRepository.SketchKey, HyperLogLog>> flushing =
+                new EnumMap<>(RollupPlan.Source.class);
+        synchronized (pending) {
+            for (RollupPlan.Source granularity : GRANULARITIES) {
+                if (!pending.get(granularity).isEmpty()) {
+                    flushing.put(granularity, pending.put(granularity, new TreeMap<>()));
+                }
+            }
+        }
+
+        if (flushing.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> flushing.forEach(uniqueIpSketchRepository::merge));
+        } catch (Exception ex) {
+            log.error("Не удалось сохранить скетчи уникальных IP-адресов: {}", ex.getMessage());
+            synchronized (pending) {
+                flushing.forEach((granularity, sketches) ->
+                        sketches.forEach((key, sketch) -> pending.get(granularity).merge(key, sketch, HyperLogLog::merge)));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ewm.hll;
+
+import ewm.EndpointStatDto;
+import ewm.rollup.RollupPlan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище скетчей HyperLogLog уникальных IP-адресов, агрегированных по часам и суткам.
+ */
+@RequiredArgsConstructor
+@Repository
+public class UniqueIpSketchRepository {
+    /**
+     * Количество скетчей, отправляемых в БД одним пакетом.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Объединить скетчи с сохранёнными скетчами тех же ключей одним пакетом upsert-запросов.
+     * Регистры объединяются в БД функцией {@code hll_merge}, поэтому сохранённый скетч не читается и строка
+     * не блокируется дольше, чем выполняется запрос. Скетчи записываются в порядке ключей, чтобы параллельные
+     * объединения блокировали строки в одном порядке.
+     *
+     * @param granularity гранулярность скетчей.
+     * @param sketches    скетчи, упорядоченные по ключу.
+     */
+    public void merge(RollupPlan.Source granularity, SortedMap<SketchKey, HyperLogLog> sketches) {
+        String table = tableOf(granularity);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + table + " AS s (app, uri, bucket, sketch) VALUES (?, ?, ?, ?)"
+                        + " ON CONFLICT (app, uri, bucket) DO UPDATE SET sketch = hll_merge(s.sketch, EXCLUDED.sketch)",
+                sketches.entrySet(), BATCH_SIZE, (ps, entry) -> {
+                    ps.setString(1, entry.getKey().app());
+                    ps.setString(2, entry.getKey().uri());
+                    ps.setTimestamp(3, Timestamp.valueOf(entry.getKey().bucket()));
+                    ps.setBytes(4, entry.getValue().toBytes());
+                });
+    }
+
+    /**
+     * Оценить количество уникальных IP-адресов за интервал, объединяя наиболее крупные подходящие скетчи.
+     * IP-адреса из исходных записей учитываются только на краях интервала, не покрытых целыми часами.
+     *
+     * @param start начало интервала (включительно).
+     * @param end   конец интервала (включительно).
+     * @param uris  адреса, по которым нужна статистика; {@code null} или пустая коллекция - по всем адресам.
+     * @return статистика запросов, упорядоченная по убыванию количества уникальных IP-адресов.
+     */
+    public List<EndpointStatDto> findStats(LocalDateTime start, LocalDateTime end, Collection<String> uris) {
+        boolean filterByUri = uris != null && !uris.isEmpty();
+        String uriFilter = filterByUri ? " AND uri IN (" + String.join(", ", Collections.nCopies(uris.size(), "?")) + ")" : "";
+
+        Map<AppUri, HyperLogLog> sketches = new HashMap<>();
+
+        for (RollupPlan.Segment segment : RollupPlan.of(start, end, RollupPlan.Source.HOUR, RollupPlan.Source.DAY).segments()) {
+            List<Object> args = new ArrayList<>();
+            args.add(Timestamp.valueOf(segment.from()));
+            args.add(Timestamp.valueOf(segment.to()));
+            if (filterByUri) {
+                args.addAll(uris);
+            }
+
+            String upperBound = segment.toInclusive() ? " <= ?" : " < ?";
+
+            if (segment.source() == RollupPlan.Source.RAW) {
+                jdbcTemplate.query("SELECT DISTINCT a.app, u.uri, HOST(h.ip) AS ip FROM hits AS h"
+                                + " JOIN apps AS a ON a.id = h.app_id JOIN uris AS u ON u.id = h.uri_id"
+                                + " WHERE h.timestamp >= ? AND h.timestamp" + upperBound + uriFilter,
+                        rs -> {
+                            sketches.computeIfAbsent(new AppUri(rs.getString("app"), rs.getString("uri")), k -> new HyperLogLog()).add(rs.getString("ip"));
+                        }, args.toArray());
+            } else {
+                jdbcTemplate.query("SELECT app, uri, sketch FROM " + tableOf(segment.source()) + " WHERE bucket >= ? AND bucket" + upperBound + uriFilter,
+                        rs -> {
+                            HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("sketch"));
+                            sketches.merge(new AppUri(rs.getString("app"), rs.getString("uri")), sketch, HyperLogLog::merge);
+                        }, args.toArray());
+            }
+        }
+
+        return sketches.entrySet().stream()
+                .map(entry -> new EndpointStatDto(entry.getKey().app(), entry.getKey().uri(), entry.getValue().estimate()))
+                .sorted(Comparator.comparing(EndpointStatDto::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Проверить, есть ли сохранённые скетчи.
+     *
+     * @return признак, есть ли сохранённые скетчи.
+     */
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM unique_ips_hourly)", Boolean.class));
+    }
+
+    private static String tableOf(RollupPlan.Source granularity) {
+        return switch (granularity) {
+            case HOUR -> "unique_ips_hourly";
+            case DAY -> "unique_ips_daily";
+            default -> throw new IllegalArgumentException("Скетчи уникальных IP-адресов ведутся только по часам и суткам");
+        };
+    }
+
+    /**
+     * Ключ скетча.
+     *
+     * @param app    идентификатор сервиса.
+     * @param uri    адрес запроса.
+     * @param bucket начало часа или суток, за которые построен скетч.
+     */
+    public record SketchKey(String app, String uri, LocalDateTime bucket) implements Comparable<SketchKey> {
+        private static final Comparator<SketchKey> COMPARATOR = Comparator.comparing(SketchKey::app)
+                .thenComparing(SketchKey::uri)
+                .thenComparing(SketchKey::bucket);
+
+        @Override
+        public int compareTo(SketchKey other) {
+            return COMPARATOR.compare(this, other);
+        }
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+}
@@ -0,0 +1,76 @@
+package ewm.migration;
+
+import ewm.partition.HitPartitionManager;
+import ewm.rollup.HitRollupRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Копирование записей из таблицы запросов прежнего формата, перенесённой {@link LegacyHitTable},
+ * в актуальную таблицу: названия сервисов и адреса заменяются идентификаторами словарей,
+ * IP-адреса преобразуются в {@code inet} (некорректные заменяются на {@code 0.0.0.0}).
+ * Идентификаторы записей сохраняются. После копирования схема {@value LegacyHitTable#SCHEMA} удаляется.
+ */
+@Component
+@Slf4j
+public class LegacyHitMigration {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HitPartitionManager hitPartitionManager;
+    private final HitRollupRepository hitRollupRepository;
+
+    public LegacyHitMigration(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              HitPartitionManager hitPartitionManager,
+                              HitRollupRepository hitRollupRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hitPartitionManager = hitPartitionManager;
+        this.hitRollupRepository = hitRollupRepository;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT PG_ADVISORY_XACT_LOCK(HASHTEXT(?))", LegacyHitTable.SCHEMA);
+
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM information_schema.tables WHERE table_schema = ? AND table_name = 'hits')",
+                    Boolean.class, LegacyHitTable.SCHEMA);
+            if (!Boolean.TRUE.equals(exists)) {
+                return;
+            }
+
+            String legacyHits = LegacyHitTable.SCHEMA + ".hits";
+
+            jdbcTemplate.update("INSERT INTO apps (app) SELECT DISTINCT app FROM " + legacyHits + " ON CONFLICT (app) DO NOTHING");
+            jdbcTemplate.update("INSERT INTO uris (uri) SELECT DISTINCT uri FROM " + legacyHits + " ON CONFLICT (uri) DO NOTHING");
+
+            List<YearMonth> months = jdbcTemplate.queryForList("SELECT DISTINCT TO_CHAR(timestamp, 'YYYY-MM') FROM " + legacyHits, String.class)
+                    .stream()
+                    .map(YearMonth::parse)
+                    .toList();
+            hitPartitionManager.createPartitions(months);
+
+            int copied = jdbcTemplate.update("""
+                    INSERT INTO hits (id, app_id, uri_id, ip, timestamp)
+                    SELECT h.id, a.id, u.id, CASE WHEN PG_INPUT_IS_VALID(h.ip, 'inet') THEN h.ip::inet ELSE '0.0.0.0'::inet END, h.timestamp
+                    FROM %s AS h JOIN apps AS a ON a.app = h.app JOIN uris AS u ON u.uri = h.uri
+                    """.formatted(legacyHits));
+            jdbcTemplate.execute("SELECT SETVAL(PG_GET_SERIAL_SEQUENCE('hits', 'id'), (SELECT COALESCE(MAX(id), 0) + 1 FROM hits), false)");
+
+            boolean rollupsBuilt = hitRollupRepository.backfillIfEmpty();
+            jdbcTemplate.execute("DROP SCHEMA " + LegacyHitTable.SCHEMA + " CASCADE");
+
+            log.info("Из таблицы запросов прежнего формата скопировано {} записей за {} месяцев{}",
+                    copied, months.size(), rollupsBuilt ? ", агрегаты построены заново" : "");
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package ewm.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Таблица запросов в формате прежних версий сервиса: без словарей сервисов и адресов.
+ * <p>
+ * Перед выполнением {@code schema.sql} такая таблица вместе со своими секциями, индексами и последовательностями
+ * переносится в схему {@value #SCHEMA}, чтобы {@code schema.sql} создал таблицу в актуальном формате.
+ * Записи копируются обратно {@link LegacyHitMigration}.
+ */
+@Slf4j
+public final class LegacyHitTable {
+    /**
+     * Схема, в которую переносится таблица прежнего формата.
+     */
+    public static final String SCHEMA = "stats_legacy";
+
+    private LegacyHitTable() {
+    }
+
+    /**
+     * Перенести таблицу {@code hits} в схему {@value #SCHEMA}, если она в прежнем формате.
+     *
+     * @param dataSource источник данных.
+     */
+    public static void moveAside(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT PG_ADVISORY_XACT_LOCK(HASHTEXT(?))", SCHEMA);
+
+            boolean legacy = Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                    SELECT EXISTS (SELECT 1 FROM information_schema.tables WHERE table_schema = CURRENT_SCHEMA() AND table_name = 'hits')
+                       AND NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_schema = CURRENT_SCHEMA() AND table_name = 'hits' AND column_name = 'app_id')
+                    """, Boolean.class));
+            if (!legacy) {
+                return;
+            }
+
+            List<String> partitions = jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'hits'::regclass",
+                    String.class);
+
+            jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+            for (String partition : partitions) {
+                jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + SCHEMA);
+            }
+            jdbcTemplate.execute("ALTER TABLE hits SET SCHEMA " + SCHEMA);
+
+            log.info("Таблица запросов прежнего формата перенесена в схему {} ({} секций)", SCHEMA, partitions.size());
+        });
+    }
+}
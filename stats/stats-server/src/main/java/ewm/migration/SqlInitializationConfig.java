@@ -0,0 +1,28 @@
+package ewm.migration;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Выполнение {@code schema.sql} с предварительным переносом таблицы запросов прежнего формата.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class SqlInitializationConfig {
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                      SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            public boolean initializeDatabase() {
+                LegacyHitTable.moveAside(dataSource);
+                return super.initializeDatabase();
+            }
+        };
+    }
+}
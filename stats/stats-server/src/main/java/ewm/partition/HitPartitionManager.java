@@ -0,0 +1,247 @@
+package ewm.partition;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Управление помесячными секциями таблицы запросов {@code hits}.
+ * <p>
+ * Периодически создаёт секции на несколько месяцев вперёд и удаляет либо отсоединяет в архив секции
+ * старше срока хранения вместе с агрегатами и скетчами за те же месяцы. Запросы, не попавшие ни в одну секцию,
+ * сохраняются в секцию по умолчанию {@code hits_default} и переносятся в помесячную секцию при её создании.
+ */
+@Component
+@Slf4j
+public class HitPartitionManager {
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME_PATTERN = Pattern.compile("hits_(\\d{4})_(\\d{2})");
+
+    /**
+     * Ключ рекомендательной блокировки, не позволяющей нескольким экземплярам сервиса менять секции одновременно.
+     */
+    private static final String LOCK_KEY = "hits_partitioning";
+
+    /**
+     * Таблицы агрегатов и скетчей, к которым применяется срок хранения секций.
+     */
+    private static final List<String> ROLLUP_TABLES = List.of("hits_minutely", "hits_hourly", "unique_ips_hourly", "unique_ips_daily");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Количество месяцев после текущего, для которых секции создаются заранее.
+     */
+    private final int monthsAhead;
+
+    /**
+     * Количество месяцев, в течение которых хранятся секции; 0 - хранить бессрочно.
+     */
+    private final int retentionMonths;
+
+    /**
+     * Действие с секциями старше срока хранения.
+     */
+    private final RetentionAction retentionAction;
+
+    /**
+     * Интервал (в миллисекундах) между проверками секций.
+     */
+    private final long maintenanceIntervalMillis;
+
+    private ScheduledExecutorService maintenanceExecutor;
+
+    public HitPartitionManager(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${stats-server.partitioning.months-ahead:2}") int monthsAhead,
+                               @Value("${stats-server.partitioning.retention-months:0}") int retentionMonths,
+                               @Value("${stats-server.partitioning.retention-action:DETACH}") RetentionAction retentionAction,
+                               @Value("${stats-server.partitioning.maintenance-interval-ms:3600000}") long maintenanceIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+        this.maintenanceIntervalMillis = maintenanceIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS hits_default PARTITION OF hits DEFAULT");
+        });
+        maintain();
+
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-server-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenanceExecutor.scheduleWithFixedDelay(this::maintain, maintenanceIntervalMillis, maintenanceIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        maintenanceExecutor.shutdownNow();
+    }
+
+    /**
+     * Создать недостающие секции и применить срок хранения к устаревшим.
+     */
+    private void maintain() {
+        YearMonth current = YearMonth.now();
+
+        try {
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                YearMonth partitionMonth = month;
+                transactionTemplate.executeWithoutResult(status -> {
+                    lock();
+                    createPartition(partitionMonth);
+                });
+            }
+
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+                transactionTemplate.executeWithoutResult(status -> {
+                    lock();
+                    expirePartitions(oldestKept);
+                    expireRollups(oldestKept);
+                });
+            }
+        } catch (Exception ex) {
+            log.error("Не удалось обслужить секции таблицы запросов: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Создать секции за месяцы, если их ещё нет.
+     * Если транзакция уже открыта, секции создаются в ней.
+     *
+     * @param months месяцы.
+     */
+    public void createPartitions(Collection<YearMonth> months) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            months.forEach(this::createPartition);
+        });
+    }
+
+    /**
+     * Создать секцию за месяц, если её ещё нет.
+     * Секция создаётся отдельной таблицей и присоединяется после переноса в неё запросов за этот месяц
+     * из секции по умолчанию, иначе присоединение было бы отклонено.
+     *
+     * @param month месяц.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        if (attachedPartitions().contains(partition)) {
+            return;
+        }
+
+        String from = month.atDay(1).atStartOfDay().toString();
+        String to = month.plusMonths(1).atDay(1).atStartOfDay().toString();
+
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE hits INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        if (attachedPartitions().contains("hits_default")) {
+            jdbcTemplate.update("WITH moved AS (DELETE FROM hits_default WHERE timestamp >= ?::timestamp AND timestamp < ?::timestamp RETURNING *) "
+                    + "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+        }
+        jdbcTemplate.execute("ALTER TABLE hits ATTACH PARTITION " + partition + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Создана секция {} таблицы запросов", partition);
+    }
+
+    /**
+     * Удалить или отсоединить в архив секции за месяцы, предшествующие {@code oldestKept}.
+     *
+     * @param oldestKept самый ранний месяц, секция которого сохраняется.
+     */
+    private void expirePartitions(YearMonth oldestKept) {
+        for (String partition : attachedPartitions()) {
+            Matcher matcher = PARTITION_NAME_PATTERN.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+
+            switch (retentionAction) {
+                case DROP -> jdbcTemplate.execute("DROP TABLE " + partition);
+                case DETACH -> {
+                    jdbcTemplate.execute("ALTER TABLE hits DETACH PARTITION " + partition);
+                    jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO hits_archive_" + PARTITION_SUFFIX_FORMATTER.format(month));
+                }
+            }
+            log.info("Секция {} таблицы запросов старше срока хранения: {}", partition, retentionAction);
+        }
+    }
+
+    /**
+     * Удалить агрегаты и скетчи за месяцы, предшествующие {@code oldestKept},
+     * чтобы статистика не охватывала периоды, исходные записи за которые уже удалены.
+     *
+     * @param oldestKept самый ранний месяц, агрегаты за который сохраняются.
+     */
+    private void expireRollups(YearMonth oldestKept) {
+        String cutoff = oldestKept.atDay(1).atStartOfDay().toString();
+        for (String table : ROLLUP_TABLES) {
+            int deleted = jdbcTemplate.update("DELETE FROM " + table + " WHERE bucket < ?::timestamp", cutoff);
+            if (deleted > 0) {
+                log.info("Удалено {} строк таблицы {} старше срока хранения", deleted, table);
+            }
+        }
+    }
+
+    // region Facilities
+
+    private void lock() {
+        jdbcTemplate.queryForList("SELECT PG_ADVISORY_XACT_LOCK(HASHTEXT(?))", LOCK_KEY);
+    }
+
+    private List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'hits'::regclass",
+                String.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "hits_" + PARTITION_SUFFIX_FORMATTER.format(month);
+    }
+
+    // endregion
+
+    /**
+     * Действие с секциями старше срока хранения.
+     */
+    public enum RetentionAction {
+        /**
+         * Удалить секцию вместе с записями.
+         */
+        DROP,
+
+        /**
+         * Отсоединить секцию от таблицы запросов и переименовать в {@code hits_archive_<год>_<месяц>}.
+         */
+        DETACH
+    }
+}
@@ -0,0 +1,133 @@
+package ewm.rollup;
+
+import ewm.EndpointStatDto;
+import ewm.hit.EndpointHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище поминутных и почасовых агрегатов количества запросов.
+ */
+@RequiredArgsConstructor
+@Repository
+public class HitRollupRepository {
+    private static final String UPSERT_MINUTELY = """
+            INSERT INTO hits_minutely (app, uri, bucket, hits) VALUES (:app, :uri, :bucket, :hits)
+            ON CONFLICT (app, uri, bucket) DO UPDATE SET hits = hits_minutely.hits + EXCLUDED.hits
+            """;
+
+    private static final String UPSERT_HOURLY = """
+            INSERT INTO hits_hourly (app, uri, bucket, hits) VALUES (:app, :uri, :bucket, :hits)
+            ON CONFLICT (app, uri, bucket) DO UPDATE SET hits = hits_hourly.hits + EXCLUDED.hits
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Учесть записи о запросах в поминутных и почасовых агрегатах.
+     * Должен вызываться в той же транзакции, что и сохранение самих записей.
+     *
+     * @param endpointHits коллекция записей о запросах.
+     */
+    public void add(Collection<EndpointHit> endpointHits) {
+        jdbcTemplate.batchUpdate(UPSERT_MINUTELY, toBatch(endpointHits, ChronoUnit.MINUTES));
+        jdbcTemplate.batchUpdate(UPSERT_HOURLY, toBatch(endpointHits, ChronoUnit.HOURS));
+    }
+
+    /**
+     * Построить поминутные и почасовые агрегаты по всем сохранённым записям о запросах, если агрегатов ещё нет.
+     *
+     * @return признак, что агрегаты были построены.
+     */
+    public boolean backfillIfEmpty() {
+        if (Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject("SELECT EXISTS (SELECT 1 FROM hits_minutely)", Boolean.class))) {
+            return false;
+        }
+
+        Map.of("hits_minutely", "minute", "hits_hourly", "hour").forEach((table, unit) ->
+                jdbcTemplate.getJdbcTemplate().update("INSERT INTO " + table + " (app, uri, bucket, hits) "
+                        + "SELECT a.app, u.uri, r.bucket, r.hits FROM ("
+                        + "SELECT app_id, uri_id, DATE_TRUNC('" + unit + "', timestamp) AS bucket, COUNT(*) AS hits FROM hits GROUP BY 1, 2, 3"
+                        + ") AS r JOIN apps AS a ON a.id = r.app_id JOIN uris AS u ON u.id = r.uri_id"));
+        return true;
+    }
+
+    /**
+     * Получить статистику запросов за интервал, используя наиболее крупные подходящие агрегаты.
+     *
+     * @param start начало интервала (включительно).
+     * @param end   конец интервала (включительно).
+     * @param uris  адреса, по которым нужна статистика; {@code null} или пустая коллекция - по всем адресам.
+     * @return статистика запросов, упорядоченная по убыванию количества запросов.
+     */
+    public List<EndpointStatDto> findStats(LocalDateTime start, LocalDateTime end, Collection<String> uris) {
+        boolean filterByUri = uris != null && !uris.isEmpty();
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (filterByUri) {
+            params.addValue("uris", uris);
+        }
+
+        List<String> parts = new ArrayList<>();
+        List<RollupPlan.Segment> segments = RollupPlan.of(start, end, RollupPlan.Source.MINUTE, RollupPlan.Source.HOUR).segments();
+        for (int i = 0; i < segments.size(); i++) {
+            RollupPlan.Segment segment = segments.get(i);
+
+            params.addValue("from" + i, Timestamp.valueOf(segment.from()));
+            params.addValue("to" + i, Timestamp.valueOf(segment.to()));
+
+            String upperBound = segment.toInclusive() ? " <= :to" + i : " < :to" + i;
+            String uriFilter = filterByUri ? " AND uri IN (:uris)" : "";
+            String uriIdFilter = filterByUri ? " AND uri_id IN (SELECT id FROM uris WHERE uri IN (:uris))" : "";
+
+            parts.add(switch (segment.source()) {
+                case RAW -> "SELECT a.app, u.uri, r.hits FROM (SELECT app_id, uri_id, COUNT(*) AS hits FROM hits WHERE timestamp >= :from" + i
+                        + " AND timestamp" + upperBound + uriIdFilter + " GROUP BY app_id, uri_id) AS r"
+                        + " JOIN apps AS a ON a.id = r.app_id JOIN uris AS u ON u.id = r.uri_id";
+                case MINUTE -> "SELECT app, uri, SUM(hits) AS hits FROM hits_minutely WHERE bucket >= :from" + i + " AND bucket" + upperBound + uriFilter + " GROUP BY app, uri";
+                case HOUR -> "SELECT app, uri, SUM(hits) AS hits FROM hits_hourly WHERE bucket >= :from" + i + " AND bucket" + upperBound + uriFilter + " GROUP BY app, uri";
+                case DAY -> throw new IllegalStateException("Посуточные агрегаты количества запросов не ведутся");
+            });
+        }
+
+        String sql = "SELECT app, uri, SUM(hits) AS hits FROM (" + String.join(" UNION ALL ", parts) + ") AS s GROUP BY app, uri ORDER BY hits DESC";
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new EndpointStatDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    /**
+     * Сгруппировать записи о запросах по агрегатам заданной гранулярности.
+     * Агрегаты упорядочиваются по ключу, чтобы параллельные пакеты блокировали строки в одном порядке.
+     */
+    private MapSqlParameterSource[] toBatch(Collection<EndpointHit> endpointHits, ChronoUnit unit) {
+        Map<RollupKey, Long> counts = endpointHits.stream()
+                .collect(Collectors.groupingBy(hit -> new RollupKey(hit.getApp(), hit.getUri(), hit.getTimestamp().truncatedTo(unit)), TreeMap::new, Collectors.counting()));
+
+        return counts.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("app", entry.getKey().app())
+                        .addValue("uri", entry.getKey().uri())
+                        .addValue("bucket", Timestamp.valueOf(entry.getKey().bucket()))
+                        .addValue("hits", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+    }
+
+    private record RollupKey(String app, String uri, LocalDateTime bucket) implements Comparable<RollupKey> {
+        private static final Comparator<RollupKey> COMPARATOR = Comparator.comparing(RollupKey::app)
+                .thenComparing(RollupKey::uri)
+                .thenComparing(RollupKey::bucket);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return COMPARATOR.compare(this, other);
+        }
+    }
+}
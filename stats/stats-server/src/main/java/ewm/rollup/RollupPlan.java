@@ -0,0 +1,118 @@
+package ewm.rollup;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение интервала запроса статистики на отрезки, каждый из которых читается из наиболее крупной
+ * подходящей таблицы агрегатов. Исходные записи о запросах читаются только на краях интервала,
+ * не покрытых целыми отрезками самой мелкой гранулярности.
+ *
+ * @param segments отрезки интервала.
+ */
+public record RollupPlan(List<Segment> segments) {
+    /**
+     * Построить разбиение интервала [start, end].
+     *
+     * @param start         начало интервала (включительно).
+     * @param end           конец интервала (включительно).
+     * @param granularities доступные гранулярности агрегатов в порядке от самой мелкой к самой крупной.
+     * @return разбиение интервала.
+     */
+    public static RollupPlan of(LocalDateTime start, LocalDateTime end, Source... granularities) {
+        List<Segment> segments = new ArrayList<>();
+
+        LocalDateTime from = ceil(start, granularities[0].getUnit());
+        LocalDateTime to = end.truncatedTo(granularities[0].getUnit());
+
+        if (!from.isBefore(to)) {
+            segments.add(new Segment(Source.RAW, start, end, true));
+            return new RollupPlan(segments);
+        }
+
+        if (start.isBefore(from)) {
+            segments.add(new Segment(Source.RAW, start, from, false));
+        }
+        addBuckets(segments, from, to, granularities, 0);
+        segments.add(new Segment(Source.RAW, to, end, true));
+
+        return new RollupPlan(segments);
+    }
+
+    /**
+     * Покрыть интервал [from, to), выровненный по гранулярности {@code granularities[level]}, агрегатами
+     * этой гранулярности только там, где нельзя использовать более крупные.
+     */
+    private static void addBuckets(List<Segment> segments, LocalDateTime from, LocalDateTime to, Source[] granularities, int level) {
+        if (level + 1 < granularities.length) {
+            LocalDateTime coarseFrom = ceil(from, granularities[level + 1].getUnit());
+            LocalDateTime coarseTo = to.truncatedTo(granularities[level + 1].getUnit());
+
+            if (coarseFrom.isBefore(coarseTo)) {
+                if (from.isBefore(coarseFrom)) {
+                    segments.add(new Segment(granularities[level], from, coarseFrom, false));
+                }
+                addBuckets(segments, coarseFrom, coarseTo, granularities, level + 1);
+                if (coarseTo.isBefore(to)) {
+                    segments.add(new Segment(granularities[level], coarseTo, to, false));
+                }
+                return;
+            }
+        }
+
+        segments.add(new Segment(granularities[level], from, to, false));
+    }
+
+    private static LocalDateTime ceil(LocalDateTime dateTime, ChronoUnit unit) {
+        LocalDateTime truncated = dateTime.truncatedTo(unit);
+        return truncated.equals(dateTime) ? truncated : truncated.plus(1, unit);
+    }
+
+    /**
+     * Источник данных для отрезка интервала.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Source {
+        /**
+         * Исходные записи о запросах.
+         */
+        RAW(ChronoUnit.SECONDS),
+
+        /**
+         * Поминутные агрегаты.
+         */
+        MINUTE(ChronoUnit.MINUTES),
+
+        /**
+         * Почасовые агрегаты.
+         */
+        HOUR(ChronoUnit.HOURS),
+
+        /**
+         * Посуточные агрегаты.
+         */
+        DAY(ChronoUnit.DAYS);
+
+        /**
+         * Единица времени, по которой выровнены агрегаты.
+         */
+        private final ChronoUnit unit;
+    }
+
+    /**
+     * Отрезок интервала запроса статистики.
+     *
+     * @param source      источник данных.
+     * @param from        начало отрезка (включительно).
+     * @param to          конец отрезка.
+     * @param toInclusive признак, входит ли конец отрезка в отрезок.
+     */
+    public record Segment(Source source, LocalDateTime from, LocalDateTime to, boolean toInclusive) {
+    }
+}
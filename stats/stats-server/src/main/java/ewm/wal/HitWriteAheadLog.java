@@ -0,0 +1,293 @@
+package ewm.wal;
+
+import ewm.hit.EndpointHit;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Журнал упреждающей записи запросов — кольцевой буфер в отображённом в память файле.
+ * <p>
+ * Файл состоит из заголовка и области данных. В заголовке хранятся логические позиции начала
+ * (первая ещё не сохранённая в БД запись) и конца (позиция для следующей записи) журнала;
+ * физическое смещение записи в области данных — логическая позиция по модулю её размера.
+ * Запись в отображённый буфер попадает в страничный кэш ОС сразу, поэтому переживает аварийное
+ * завершение процесса, а не сохранённые в БД записи вычитываются заново после перезапуска.
+ * На диск изменения гарантированно попадают только при вызове {@link #force()}: при сбое ОС или машины
+ * теряются записи, добавленные после последнего сброса.
+ * <p>
+ * Добавлять записи могут несколько потоков одновременно, читать и подтверждать — только один.
+ */
+@Slf4j
+public class HitWriteAheadLog implements Closeable {
+    private static final int MAGIC = 0x45574D57;
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int HEAD_OFFSET = 8;
+    private static final int TAIL_OFFSET = 16;
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Признак отсутствия даты и времени запроса в записи.
+     */
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Логическая позиция первой не сохранённой в БД записи.
+     */
+    private long head;
+
+    /**
+     * Логическая позиция, с которой будет добавлена следующая запись.
+     */
+    private long tail;
+
+    /**
+     * Открыть журнал, создав файл при необходимости.
+     * Если файл уже существует и был создан с тем же размером области данных, не сохранённые записи сохраняются.
+     *
+     * @param path     путь к файлу журнала.
+     * @param capacity размер области данных в байтах.
+     * @throws IOException если файл не удалось открыть или отобразить в память.
+     */
+    public HitWriteAheadLog(Path path, int capacity) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        this.capacity = capacity;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long fileSize = channel.size();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+
+        if (fileSize == HEADER_SIZE + (long) capacity
+                && buffer.getInt(MAGIC_OFFSET) == MAGIC
+                && buffer.getInt(VERSION_OFFSET) == VERSION) {
+            head = buffer.getLong(HEAD_OFFSET);
+            tail = buffer.getLong(TAIL_OFFSET);
+        } else {
+            if (fileSize > 0) {
+                log.warn("Журнал запросов {} имеет неподходящий формат или размер и будет создан заново", path);
+            }
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            head = 0;
+            tail = 0;
+            buffer.putLong(HEAD_OFFSET, head);
+            buffer.putLong(TAIL_OFFSET, tail);
+        }
+
+        if (head < 0 || tail < head || tail - head > capacity) {
+            log.error("Позиции журнала запросов {} повреждены (начало {}, конец {}), журнал очищен", path, head, tail);
+            head = tail = 0;
+            buffer.putLong(HEAD_OFFSET, head);
+            buffer.putLong(TAIL_OFFSET, tail);
+        }
+    }
+
+    /**
+     * Добавить запись о запросе в конец журнала.
+     *
+     * @param endpointHit запись о запросе.
+     * @return {@code false}, если в журнале недостаточно места.
+     */
+    public boolean append(EndpointHit endpointHit) {
+        byte[] record = encode(endpointHit);
+
+        lock.lock();
+        try {
+            if (capacity - (tail - head) < Integer.BYTES + record.length) {
+                return false;
+            }
+
+            putInt(tail, record.length);
+            put(tail + Integer.BYTES, record);
+            tail += Integer.BYTES + record.length;
+            buffer.putLong(TAIL_OFFSET, tail);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Прочитать записи с начала журнала, не удаляя их.
+     *
+     * @param limit максимальное количество записей.
+     * @return прочитанные записи и логическая позиция, следующая за последней из них.
+     */
+    public Batch read(int limit) {
+        long from;
+        long to;
+        lock.lock();
+        try {
+            from = head;
+            to = tail;
+        } finally {
+            lock.unlock();
+        }
+
+        // Область [head, tail) не изменяется добавляющими потоками до вызова commit, поэтому читается без блокировки.
+        List<EndpointHit> endpointHits = new ArrayList<>(Math.min(limit, 1024));
+        long position = from;
+        while (position < to && endpointHits.size() < limit) {
+            int length = getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > to) {
+                log.error("Обнаружена повреждённая запись журнала запросов на позиции {}, остаток журнала пропущен", position);
+                return new Batch(endpointHits, to);
+            }
+
+            endpointHits.add(decode(get(position + Integer.BYTES, length)));
+            position += Integer.BYTES + length;
+        }
+
+        return new Batch(endpointHits, position);
+    }
+
+    /**
+     * Удалить из журнала записи, предшествующие позиции.
+     *
+     * @param position логическая позиция, полученная из {@link Batch#position()}.
+     */
+    public void commit(long position) {
+        lock.lock();
+        try {
+            head = position;
+            buffer.putLong(HEAD_OFFSET, head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Получить объём журнала, занятый не сохранёнными в БД записями.
+     *
+     * @return количество байт.
+     */
+    public long pendingBytes() {
+        lock.lock();
+        try {
+            return tail - head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбросить изменения журнала из страничного кэша ОС на диск.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // region Facilities
+
+    private void putInt(long position, int value) {
+        put(position, ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+    }
+
+    private int getInt(long position) {
+        return ByteBuffer.wrap(get(position, Integer.BYTES)).getInt();
+    }
+
+    /**
+     * Записать байты в область данных с учётом перехода через её конец.
+     */
+    private void put(long position, byte[] bytes) {
+        int offset = (int) (position % capacity);
+        int first = Math.min(bytes.length, capacity - offset);
+        buffer.put(HEADER_SIZE + offset, bytes, 0, first);
+        if (first < bytes.length) {
+            buffer.put(HEADER_SIZE, bytes, first, bytes.length - first);
+        }
+    }
+
+    /**
+     * Прочитать байты из области данных с учётом перехода через её конец.
+     */
+    private byte[] get(long position, int length) {
+        byte[] bytes = new byte[length];
+        int offset = (int) (position % capacity);
+        int first = Math.min(length, capacity - offset);
+        buffer.get(HEADER_SIZE + offset, bytes, 0, first);
+        if (first < length) {
+            buffer.get(HEADER_SIZE, bytes, first, length - first);
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(EndpointHit endpointHit) {
+        byte[] app = endpointHit.getApp().getBytes(StandardCharsets.UTF_8);
+        byte[] uri = endpointHit.getUri().getBytes(StandardCharsets.UTF_8);
+        byte[] ip = endpointHit.getIp().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime timestamp = endpointHit.getTimestamp();
+
+        return ByteBuffer.allocate(3 * Integer.BYTES + app.length + uri.length + ip.length + Long.BYTES + Integer.BYTES)
+                .putInt(app.length).put(app)
+                .putInt(uri.length).put(uri)
+                .putInt(ip.length).put(ip)
+                .putLong(timestamp == null ? NO_TIMESTAMP : timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(timestamp == null ? 0 : timestamp.getNano())
+                .array();
+    }
+
+    private static EndpointHit decode(byte[] record) {
+        ByteBuffer source = ByteBuffer.wrap(record);
+        String app = getString(source);
+        String uri = getString(source);
+        String ip = getString(source);
+        long epochSecond = source.getLong();
+        int nano = source.getInt();
+
+        return EndpointHit.builder()
+                .app(app)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(epochSecond == NO_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC))
+                .build();
+    }
+
+    private static String getString(ByteBuffer source) {
+        byte[] bytes = new byte[source.getInt()];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // endregion
+
+    /**
+     * Записи, прочитанные из журнала.
+     *
+     * @param endpointHits записи о запросах.
+     * @param position     логическая позиция, следующая за последней прочитанной записью.
+     */
+    public record Batch(List<EndpointHit> endpointHits, long position) {
+    }
+}
@@ -0,0 +1,320 @@
+package ewm.wal;
+
+import ewm.hit.EndpointHit;
+import ewm.hit.EndpointHitWriter;
+import ewm.hit.HitIngestion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенный приём записей о запросах: запись добавляется в {@link HitWriteAheadLog} и сразу подтверждается,
+ * а в БД переносится фоновым потоком пакетами.
+ * <p>
+ * Запись удаляется из журнала только после фиксации транзакции, поэтому при аварийном завершении процесса
+ * между фиксацией и удалением часть записей может быть сохранена в БД повторно.
+ * Журнал сбрасывается на диск раз в {@link #forceIntervalMillis} миллисекунд: при сбое ОС или машины
+ * подтверждённые за это время записи могут быть потеряны.
+ * <p>
+ * Если пакет не удаётся сохранить {@link #maxAttempts} раз подряд по причине, не связанной с недоступностью БД,
+ * записи пакета сохраняются по одной, а отвергнутые БД записи переносятся в файл недоставленных записей,
+ * чтобы одна некорректная запись не останавливала перенос журнала.
+ */
+@Component
+@ConditionalOnProperty(name = "stats-server.ingestion.mode", havingValue = "write-behind")
+@Slf4j
+public class WriteBehindHitIngestion implements HitIngestion {
+    private final EndpointHitWriter endpointHitWriter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Путь к файлу журнала.
+     */
+    private final Path path;
+
+    /**
+     * Путь к файлу недоставленных записей.
+     */
+    private final Path deadLetterPath;
+
+    /**
+     * Размер области данных журнала в байтах.
+     */
+    private final int capacity;
+
+    /**
+     * Максимальное количество записей, сохраняемых в БД одной транзакцией.
+     */
+    private final int batchSize;
+
+    /**
+     * Интервал (в миллисекундах) между попытками переноса журнала в БД, если журнал пуст или БД недоступна.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * Интервал (в миллисекундах) между сбросами журнала на диск.
+     */
+    private final long forceIntervalMillis;
+
+    /**
+     * Количество неудачных попыток сохранения пакета, после которого записи пакета сохраняются по одной.
+     */
+    private final int maxAttempts;
+
+    private final Counter writtenHits;
+    private final Counter bypassedHits;
+    private final Counter failedWrites;
+    private final Counter deadLetteredHits;
+
+    private HitWriteAheadLog writeAheadLog;
+    private ScheduledExecutorService writerExecutor;
+    private ScheduledExecutorService syncExecutor;
+
+    /**
+     * Количество неудачных попыток сохранения пакета из начала журнала подряд.
+     */
+    private int failedAttempts;
+
+    public WriteBehindHitIngestion(EndpointHitWriter endpointHitWriter,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${stats-server.ingestion.wal.path}") String path,
+                                   @Value("${stats-server.ingestion.wal.dead-letter-path}") String deadLetterPath,
+                                   @Value("${stats-server.ingestion.wal.capacity-bytes:67108864}") int capacity,
+                                   @Value("${stats-server.ingestion.wal.batch-size:5000}") int batchSize,
+                                   @Value("${stats-server.ingestion.wal.flush-interval-ms:200}") long flushIntervalMillis,
+                                   @Value("${stats-server.ingestion.wal.force-interval-ms:1000}") long forceIntervalMillis,
+                                   @Value("${stats-server.ingestion.wal.max-attempts:5}") int maxAttempts) {
+        this.endpointHitWriter = endpointHitWriter;
+        this.meterRegistry = meterRegistry;
+        this.path = requireAbsolute("stats-server.ingestion.wal.path", path);
+        this.deadLetterPath = requireAbsolute("stats-server.ingestion.wal.dead-letter-path", deadLetterPath);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.forceIntervalMillis = forceIntervalMillis;
+        this.maxAttempts = maxAttempts;
+
+        this.writtenHits = Counter.builder("stats.server.wal.hits.written")
+                .description("Количество запросов, перенесённых из журнала в БД")
+                .register(meterRegistry);
+        this.bypassedHits = Counter.builder("stats.server.wal.hits.bypassed")
+                .description("Количество запросов, сохранённых в БД напрямую из-за переполнения журнала")
+                .register(meterRegistry);
+        this.failedWrites = Counter.builder("stats.server.wal.writes.failed")
+                .description("Количество неудачных попыток перенести пакет запросов из журнала в БД")
+                .register(meterRegistry);
+        this.deadLetteredHits = Counter.builder("stats.server.wal.hits.dead-lettered")
+                .description("Количество запросов, отвергнутых БД и перенесённых в файл недоставленных записей")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        writeAheadLog = new HitWriteAheadLog(path, capacity);
+        Gauge.builder("stats.server.wal.pending.bytes", writeAheadLog, HitWriteAheadLog::pendingBytes)
+                .description("Объём журнала, занятый запросами, ещё не перенесёнными в БД")
+                .register(meterRegistry);
+
+        long pendingBytes = writeAheadLog.pendingBytes();
+        if (pendingBytes > 0) {
+            log.info("В журнале запросов {} найдено {} байт не сохранённых записей, они будут перенесены в БД", path, pendingBytes);
+        }
+
+        writerExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-server-wal-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writerExecutor.scheduleWithFixedDelay(this::drain, 0, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-server-wal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncExecutor.scheduleWithFixedDelay(this::force, forceIntervalMillis, forceIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        syncExecutor.shutdown();
+        writerExecutor.shutdown();
+        if (!writerExecutor.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+            writerExecutor.shutdownNow();
+        }
+        if (!syncExecutor.awaitTermination(forceIntervalMillis, TimeUnit.MILLISECONDS)) {
+            syncExecutor.shutdownNow();
+        }
+        drain();
+        writeAheadLog.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Записи, не поместившиеся в журнал, сохраняются в БД в вызывающем потоке.
+     */
+    @Override
+    public void ingest(Collection<EndpointHit> endpointHits) {
+        List<EndpointHit> overflow = new ArrayList<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            if (!writeAheadLog.append(endpointHit)) {
+                overflow.add(endpointHit);
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            endpointHitWriter.write(overflow);
+            bypassedHits.increment(overflow.size());
+        }
+    }
+
+    /**
+     * Перенести накопленные в журнале записи в БД пакетами по {@link #batchSize} штук.
+     * При ошибке записи журнал не очищается, и перенос повторяется на следующем запуске.
+     */
+    private void drain() {
+        try {
+            HitWriteAheadLog.Batch batch = writeAheadLog.read(batchSize);
+            while (!batch.endpointHits().isEmpty()) {
+                if (write(batch.endpointHits())) {
+                    writeAheadLog.commit(batch.position());
+                } else {
+                    isolate(batch.endpointHits().size());
+                }
+
+                batch = writeAheadLog.read(batchSize);
+            }
+            writeAheadLog.commit(batch.position());
+        } catch (Exception ex) {
+            log.error("Не удалось перенести запросы из журнала в БД: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Сохранить пакет записей в БД.
+     *
+     * @param endpointHits записи о запросах из начала журнала.
+     * @return {@code false}, если пакет не удалось сохранить {@link #maxAttempts} раз подряд и его записи нужно
+     * сохранить по одной.
+     */
+    private boolean write(List<EndpointHit> endpointHits) {
+        try {
+            endpointHitWriter.write(endpointHits);
+            writtenHits.increment(endpointHits.size());
+            failedAttempts = 0;
+            return true;
+        } catch (RuntimeException ex) {
+            failedWrites.increment();
+            if (isUnavailable(ex) || ++failedAttempts < maxAttempts) {
+                throw ex;
+            }
+
+            log.error("Пакет из {} запросов не удалось сохранить в БД за {} попыток, записи будут сохранены по одной: {}",
+                    endpointHits.size(), failedAttempts, ex.getMessage());
+            failedAttempts = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Сохранить записи из начала журнала по одной, перенося отвергнутые БД записи в файл недоставленных записей.
+     * Каждая запись удаляется из журнала сразу после сохранения, поэтому при недоступности БД перенос
+     * продолжается с первой не сохранённой записи.
+     *
+     * @param count количество записей.
+     */
+    private void isolate(int count) {
+        for (int i = 0; i < count; i++) {
+            HitWriteAheadLog.Batch batch = writeAheadLog.read(1);
+            if (batch.endpointHits().isEmpty()) {
+                return;
+            }
+
+            try {
+                endpointHitWriter.write(batch.endpointHits());
+                writtenHits.increment();
+            } catch (RuntimeException ex) {
+                if (isUnavailable(ex)) {
+                    throw ex;
+                }
+                deadLetter(batch.endpointHits().getFirst(), ex);
+            }
+            writeAheadLog.commit(batch.position());
+        }
+    }
+
+    /**
+     * Перенести отвергнутую БД запись в файл недоставленных записей.
+     * Если файл недоступен, запись остаётся только в журнале приложения.
+     *
+     * @param endpointHit запись о запросе.
+     * @param cause       ошибка сохранения записи в БД.
+     */
+    private void deadLetter(EndpointHit endpointHit, RuntimeException cause) {
+        deadLetteredHits.increment();
+        String line = String.join("\t", String.valueOf(endpointHit.getTimestamp()), endpointHit.getApp(),
+                endpointHit.getUri(), endpointHit.getIp()) + System.lineSeparator();
+        try {
+            if (deadLetterPath.getParent() != null) {
+                Files.createDirectories(deadLetterPath.getParent());
+            }
+            Files.writeString(deadLetterPath, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            log.error("Запрос {} отвергнут БД и перенесён в {}: {}", endpointHit, deadLetterPath, cause.getMessage());
+        } catch (IOException ex) {
+            log.error("Запрос {} отвергнут БД ({}) и пропущен: не удалось записать его в {}: {}",
+                    endpointHit, cause.getMessage(), deadLetterPath, ex.getMessage());
+        }
+    }
+
+    /**
+     * Сбросить журнал на диск.
+     */
+    private void force() {
+        try {
+            writeAheadLog.force();
+        } catch (Exception ex) {
+            log.error("Не удалось сбросить журнал запросов {} на диск: {}", path, ex.getMessage());
+        }
+    }
+
+    /**
+     * Проверить, вызвана ли ошибка недоступностью БД, а не содержимым записей.
+     * Такие ошибки не учитываются в количестве попыток: пакет повторяется, пока БД не станет доступна.
+     */
+    private static boolean isUnavailable(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException;
+    }
+
+    private static Path requireAbsolute(String property, String value) {
+        Path path = Path.of(value);
+        if (!path.isAbsolute()) {
+            throw new IllegalStateException("Свойство " + property + " должно содержать абсолютный путь: " + value);
+        }
+        return path;
+    }
+}
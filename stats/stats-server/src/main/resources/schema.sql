@@ -1,15 +1,113 @@
-CREATE TABLE IF NOT EXISTS PUBLIC.HITS
+CREATE TABLE IF NOT EXISTS PUBLIC.APPS
 (
-  ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  ID SERIAL NOT NULL,
   APP VARCHAR(1000) NOT NULL,
+  CONSTRAINT PK_APPS PRIMARY KEY (ID),
+  CONSTRAINT UQ_APPS_APP UNIQUE (APP)
+);
+COMMENT ON TABLE PUBLIC.APPS IS 'Словарь идентификаторов сервисов';
+COMMENT ON COLUMN PUBLIC.APPS.ID IS 'Уникальный идентификатор';
+COMMENT ON COLUMN PUBLIC.APPS.APP IS 'Идентификатор сервиса для которого записывается информация';
+
+CREATE TABLE IF NOT EXISTS PUBLIC.URIS
+(
+  ID SERIAL NOT NULL,
   URI VARCHAR(1000) NOT NULL,
-  IP VARCHAR(50) NOT NULL,
-  TIMESTAMP TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-  CONSTRAINT PK_HITS PRIMARY KEY (ID)
+  CONSTRAINT PK_URIS PRIMARY KEY (ID),
+  CONSTRAINT UQ_URIS_URI UNIQUE (URI)
 );
-COMMENT ON TABLE PUBLIC.HITS IS 'Содержит информацию о запросах пользователей';
+COMMENT ON TABLE PUBLIC.URIS IS 'Словарь адресов запросов';
+COMMENT ON COLUMN PUBLIC.URIS.ID IS 'Уникальный идентификатор';
+COMMENT ON COLUMN PUBLIC.URIS.URI IS 'URI для которого был осуществлен запрос';
+
+CREATE TABLE IF NOT EXISTS PUBLIC.HITS
+(
+  ID BIGSERIAL NOT NULL,
+  APP_ID INTEGER NOT NULL,
+  URI_ID INTEGER NOT NULL,
+  IP INET NOT NULL,
+  TIMESTAMP TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT PK_HITS PRIMARY KEY (ID, TIMESTAMP)
+) PARTITION BY RANGE (TIMESTAMP);
+COMMENT ON TABLE PUBLIC.HITS IS 'Содержит информацию о запросах пользователей, секционирована по месяцам';
 COMMENT ON COLUMN PUBLIC.HITS.ID IS 'Уникальный идентификатор';
-COMMENT ON COLUMN PUBLIC.HITS.APP IS 'Идентификатор сервиса для которого записывается информация';
-COMMENT ON COLUMN PUBLIC.HITS.URI IS 'URI для которого был осуществлен запрос';
+COMMENT ON COLUMN PUBLIC.HITS.APP_ID IS 'Идентификатор сервиса из словаря APPS';
+COMMENT ON COLUMN PUBLIC.HITS.URI_ID IS 'Идентификатор адреса из словаря URIS';
 COMMENT ON COLUMN PUBLIC.HITS.IP IS 'IP-адрес пользователя, осуществившего запрос';
-COMMENT ON COLUMN PUBLIC.HITS.TIMESTAMP IS 'Дата и время, когда был совершен запрос к эндпоинту';
\ No newline at end of file
+COMMENT ON COLUMN PUBLIC.HITS.TIMESTAMP IS 'Дата и время, когда был совершен запрос к эндпоинту';
+CREATE INDEX IF NOT EXISTS IX_HITS_URI_ID_TIMESTAMP ON PUBLIC.HITS (URI_ID, TIMESTAMP);
+
+CREATE TABLE IF NOT EXISTS PUBLIC.HITS_MINUTELY
+(
+  APP VARCHAR(1000) NOT NULL,
+  URI VARCHAR(1000) NOT NULL,
+  BUCKET TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  HITS BIGINT NOT NULL,
+  CONSTRAINT PK_HITS_MINUTELY PRIMARY KEY (APP, URI, BUCKET)
+);
+COMMENT ON TABLE PUBLIC.HITS_MINUTELY IS 'Содержит количество запросов к эндпоинтам, агрегированное по минутам';
+COMMENT ON COLUMN PUBLIC.HITS_MINUTELY.APP IS 'Идентификатор сервиса для которого записывается информация';
+COMMENT ON COLUMN PUBLIC.HITS_MINUTELY.URI IS 'URI для которого был осуществлен запрос';
+COMMENT ON COLUMN PUBLIC.HITS_MINUTELY.BUCKET IS 'Начало минуты, за которую подсчитаны запросы';
+COMMENT ON COLUMN PUBLIC.HITS_MINUTELY.HITS IS 'Количество запросов за минуту';
+
+
+CREATE TABLE IF NOT EXISTS PUBLIC.HITS_HOURLY
+(
+  APP VARCHAR(1000) NOT NULL,
+  URI VARCHAR(1000) NOT NULL,
+  BUCKET TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  HITS BIGINT NOT NULL,
+  CONSTRAINT PK_HITS_HOURLY PRIMARY KEY (APP, URI, BUCKET)
+);
+COMMENT ON TABLE PUBLIC.HITS_HOURLY IS 'Содержит количество запросов к эндпоинтам, агрегированное по часам';
+COMMENT ON COLUMN PUBLIC.HITS_HOURLY.APP IS 'Идентификатор сервиса для которого записывается информация';
+COMMENT ON COLUMN PUBLIC.HITS_HOURLY.URI IS 'URI для которого был осуществлен запрос';
+COMMENT ON COLUMN PUBLIC.HITS_HOURLY.BUCKET IS 'Начало часа, за который подсчитаны запросы';
+COMMENT ON COLUMN PUBLIC.HITS_HOURLY.HITS IS 'Количество запросов за час';
+
+
+CREATE TABLE IF NOT EXISTS PUBLIC.UNIQUE_IPS_HOURLY
+(
+  APP VARCHAR(1000) NOT NULL,
+  URI VARCHAR(1000) NOT NULL,
+  BUCKET TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  SKETCH BYTEA NOT NULL,
+  CONSTRAINT PK_UNIQUE_IPS_HOURLY PRIMARY KEY (APP, URI, BUCKET)
+);
+COMMENT ON TABLE PUBLIC.UNIQUE_IPS_HOURLY IS 'Содержит HyperLogLog-скетчи уникальных IP-адресов, агрегированные по часам';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_HOURLY.APP IS 'Идентификатор сервиса для которого записывается информация';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_HOURLY.URI IS 'URI для которого был осуществлен запрос';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_HOURLY.BUCKET IS 'Начало часа, за который собран скетч';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_HOURLY.SKETCH IS 'Регистры HyperLogLog-скетча IP-адресов за час';
+
+
+CREATE TABLE IF NOT EXISTS PUBLIC.UNIQUE_IPS_DAILY
+(
+  APP VARCHAR(1000) NOT NULL,
+  URI VARCHAR(1000) NOT NULL,
+  BUCKET TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  SKETCH BYTEA NOT NULL,
+  CONSTRAINT PK_UNIQUE_IPS_DAILY PRIMARY KEY (APP, URI, BUCKET)
+);
+COMMENT ON TABLE PUBLIC.UNIQUE_IPS_DAILY IS 'Содержит HyperLogLog-скетчи уникальных IP-адресов, агрегированные по суткам';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_DAILY.APP IS 'Идентификатор сервиса для которого записывается информация';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_DAILY.URI IS 'URI для которого был осуществлен запрос';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_DAILY.BUCKET IS 'Начало суток, за которые собран скетч';
+COMMENT ON COLUMN PUBLIC.UNIQUE_IPS_DAILY.SKETCH IS 'Регистры HyperLogLog-скетча IP-адресов за сутки';
+
+
+CREATE OR REPLACE FUNCTION PUBLIC.HLL_MERGE(LEFT_SKETCH BYTEA, RIGHT_SKETCH BYTEA) RETURNS BYTEA
+LANGUAGE PLPGSQL IMMUTABLE STRICT AS '
+DECLARE
+  MERGED BYTEA := LEFT_SKETCH;
+BEGIN
+  FOR I IN 0 .. LENGTH(RIGHT_SKETCH) - 1 LOOP
+    IF GET_BYTE(RIGHT_SKETCH, I) > GET_BYTE(MERGED, I) THEN
+      MERGED := SET_BYTE(MERGED, I, GET_BYTE(RIGHT_SKETCH, I));
+    END IF;
+  END LOOP;
+  RETURN MERGED;
+END
+';
+COMMENT ON FUNCTION PUBLIC.HLL_MERGE(BYTEA, BYTEA) IS 'Объединяет HyperLogLog-скетчи, выбирая максимальное значение каждого регистра';